@@ -0,0 +1,33 @@
+package bench;
+
+import java.io.File;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs the benchmarks like jmh's own main, but always writes the results as json
+ * to bench/results/, so runs from different versions can be compared.
+ * any normal jmh arguments still work
+ */
+public class BenchMain {
+
+	public static void main(String[] args) throws Exception {
+		File dir = new File("bench/results");
+		dir.mkdirs();
+		String file = new File(dir, "jmh-" + System.currentTimeMillis() + ".json").getPath();
+
+		Options o = new OptionsBuilder()
+			.parent(new CommandLineOptions(args))
+			.resultFormat(ResultFormatType.JSON)
+			.result(file)
+			.build();
+
+		new Runner(o).run();
+		System.out.println("results in " + file);
+	}
+
+}
@@ -0,0 +1,69 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.core.Font;
+
+/**
+ * the layout part of Font.render, with the chars going nowhere instead of into a batch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FontBench {
+
+	@Param({"16", "256"})
+	public int length;
+
+	@Param({"false", "true"})
+	public boolean centered;
+
+	private LayoutFont font;
+	private char[] text;
+
+	private static class LayoutFont extends Font {
+
+		float sum;
+
+		LayoutFont() {
+			super("res/font/default.bmp", "res/font/default.csv");
+		}
+
+		protected void charRender(int cx, int cy, float left, float right, float up, float down) {
+			sum += left + up + cx + cy;
+		}
+
+	}
+
+	@Setup
+	public void setup() {
+		Headless.base();
+		font = new LayoutFont();
+		text = new char[length];
+		for(int i = 0; i < length; ++i) {
+			text[i] = (char)(' ' + i % 95);
+		}
+	}
+
+	@Benchmark
+	public float layout() {
+		font.layout(text, 0, 0, 1, centered);
+		return font.sum;
+	}
+
+}
@@ -0,0 +1,102 @@
+package bench;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import cnge.core.Base;
+import cnge.core.BasePreset;
+import cnge.core.BlockSet;
+import cnge.core.ScriptedInput;
+import game.SparkBase;
+import game.TexBlock;
+import game.scenes.game.GameScene;
+
+/**
+ * shared setup, everything runs on a headless base so no window or natives are needed
+ */
+public class Headless {
+
+	public static final int TICK_RATE = 120;
+
+	/*
+	 * the same colors as GameAssets.world1Blocks
+	 */
+	public static final int PLAIN = 0xff000000;
+	public static final int START = 0xffff0000;
+	public static final int EMPTY = 0xffffffff;
+
+	private static SparkBase base;
+	private static GameScene scene;
+
+	/**
+	 * @return a headless base, made the first time
+	 */
+	public static SparkBase base() {
+		if(base == null) {
+			base = new SparkBase(new BasePreset(Base.ASPECT_FRAMER, BasePreset.UNIT_SCREEN_PIXELS, 512, 288, 10).fixedStep(TICK_RATE, 8), new ScriptedInput());
+		}
+		return base;
+	}
+
+	/**
+	 * @return the game scene with all its assets loaded, headless
+	 */
+	public static GameScene game() {
+		if(scene == null) {
+			//the scene's assets need the base to exist first
+			SparkBase b = base();
+			scene = new GameScene();
+			b.simulate(scene, 0);
+		}
+		return scene;
+	}
+
+	/**
+	 * a block set like the game's, without any textures
+	 */
+	public static BlockSet<TexBlock> sparkBlocks() {
+		return new BlockSet<TexBlock>(
+			new TexBlock(-1, -1, false, null, -1, -1),
+			new TexBlock(PLAIN, 1, true, null, 0, 2),
+			new TexBlock(0xff00c8c8, 1, false, null, 0, 0),
+			new TexBlock(0xffffc8c8, 1, false, null, 1, 0),
+			new TexBlock(START, 1, true, null, 3, 1),
+			new TexBlock(0xff00ff00, 1, true, null, 3, 2),
+			new TexBlock(0xff00ffff, -1, false, null, 0, 0)
+		);
+	}
+
+	/**
+	 * writes a random level image to a temp file
+	 *
+	 * @param w - width in blocks
+	 * @param h - height in blocks
+	 * @param colors - the block colors to pick from
+	 * @param fill - how much of the level gets a block, 0 to 1, the rest is empty
+	 * @param seed - so the same level comes out every time
+	 *
+	 * @return the path to the image
+	 */
+	public static String levelImage(int w, int h, int[] colors, double fill, long seed) throws IOException {
+		Random r = new Random(seed);
+		BufferedImage b = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		for(int y = 0; y < h; ++y) {
+			for(int x = 0; x < w; ++x) {
+				b.setRGB(x, y, r.nextDouble() < fill ? colors[r.nextInt(colors.length)] : EMPTY);
+			}
+		}
+		//somewhere to start, in the middle
+		b.setRGB(w / 2, h / 2, START);
+		File f = File.createTempFile("level", ".png");
+		f.deleteOnExit();
+		//and the compiled level that gets written next to it
+		new File(f.getPath().replace(".png", ".lvl")).deleteOnExit();
+		ImageIO.write(b, "png", f);
+		return f.getPath();
+	}
+
+}
@@ -0,0 +1,91 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.core.Block;
+import cnge.core.BlockSet;
+import cnge.core.Level;
+import cnge.core.Map;
+
+/**
+ * Level.load, reading the image and placing every block, for different level sizes and block set lengths,
+ * against reading the same level back compiled
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelLoadBench {
+
+	@Param({"64", "256", "1024"})
+	public int size;
+
+	@Param({"4", "16", "64"})
+	public int blocks;
+
+	private BenchLevel level;
+	private BenchLevel compiled;
+
+	private static class BenchLevel extends Level<Map<Block>, Block> {
+
+		BenchLevel(String path, BlockSet<Block> bs) {
+			super(path, bs);
+		}
+
+		public Map<Block> mapCreate(int i, Object... params) {
+			return null;
+		}
+
+		public void onLevelLoad() {
+		}
+
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		Block[] bs = new Block[blocks + 1];
+		int[] colors = new int[blocks];
+		for(int i = 0; i < blocks; ++i) {
+			colors[i] = 0xff000000 | (i + 1);
+			bs[i] = new Block(colors[i], 0);
+		}
+		//every level image has a start pixel, it has to be a block or each load complains about it
+		bs[blocks] = new Block(Headless.START, 0);
+		String path = Headless.levelImage(size, size, colors, 0.5, 43);
+		BlockSet<Block> set = new BlockSet<Block>(new Block(-1, -1), bs);
+		level = new BenchLevel(path, set);
+		level.setCompiled(false);
+		compiled = new BenchLevel(path, set);
+		//writes the compiled level
+		compiled.load();
+	}
+
+	@Benchmark
+	public BenchLevel load() {
+		level.unload();
+		level.load();
+		return level;
+	}
+
+	@Benchmark
+	public BenchLevel loadCompiled() {
+		compiled.unload();
+		compiled.load();
+		return compiled;
+	}
+
+}
@@ -0,0 +1,99 @@
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.core.Map;
+import cnge.core.TileGrid;
+import game.scenes.game.SparkMap;
+
+/**
+ * the different ways a map can be looked into, over the same set of coordinates,
+ * some of which are off the edges
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapAccessBench {
+
+	public static final int SIZE = 256;
+	public static final int LOOKUPS = 4096;
+
+	private TileGrid tiles;
+	private int[] xs;
+	private int[] ys;
+	private SparkMap map;
+
+	@Setup
+	public void setup() {
+		Headless.base();
+		Random r = new Random(43);
+		tiles = new TileGrid(SIZE, SIZE);
+		for(int j = 0; j < SIZE; ++j) {
+			for(int i = 0; i < SIZE; ++i) {
+				tiles.set(i, j, r.nextInt(8) - 1);
+			}
+		}
+		xs = new int[LOOKUPS];
+		ys = new int[LOOKUPS];
+		for(int i = 0; i < LOOKUPS; ++i) {
+			xs[i] = r.nextInt(SIZE + 64) - 32;
+			ys[i] = r.nextInt(SIZE + 64) - 32;
+		}
+		map = new SparkMap();
+	}
+
+	@Benchmark
+	public int edgeAccess() {
+		int sum = 0;
+		for(int i = 0; i < LOOKUPS; ++i) {
+			sum += Map.edgeAccess(tiles, xs[i], ys[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int repeatAllAccess() {
+		int sum = 0;
+		for(int i = 0; i < LOOKUPS; ++i) {
+			sum += Map.repeatAllAccess(tiles, xs[i], ys[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int boundedAccess() {
+		int sum = 0;
+		for(int i = 0; i < LOOKUPS; ++i) {
+			sum += map.boundedAccess(tiles, xs[i], ys[i]);
+		}
+		return sum;
+	}
+
+	/**
+	 * the way the game does it, through the map's access strategy
+	 */
+	@Benchmark
+	public int strategyAccess() {
+		int sum = 0;
+		for(int i = 0; i < LOOKUPS; ++i) {
+			sum += map.access(tiles, xs[i], ys[i]);
+		}
+		return sum;
+	}
+
+}
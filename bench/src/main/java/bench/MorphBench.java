@@ -0,0 +1,69 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.core.Base;
+import cnge.core.morph.Morph;
+import cnge.graphics.Transform;
+
+/**
+ * Morph.update moving, rotating and scaling all at once, for each interpolator
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MorphBench {
+
+	@Param({"LINEAR", "SQUARE", "ROOT", "UNDERCIRCLE", "OVERCIRCLE", "COSINE"})
+	public String interpolator;
+
+	private Transform transform;
+	private Morph morph;
+
+	@Setup
+	public void setup() {
+		transform = new Transform(0, 0, 32, 32);
+		switch(interpolator) {
+			case "LINEAR": morph = new Morph(transform, Morph.lINEAR, 1); break;
+			case "SQUARE": morph = new Morph(transform, Morph.SQUARE, 1); break;
+			case "ROOT": morph = new Morph(transform, Morph.ROOT, 1); break;
+			case "UNDERCIRCLE": morph = new Morph(transform, Morph.UNDERCIRCLE, 1); break;
+			case "OVERCIRCLE": morph = new Morph(transform, Morph.OVERCIRCLE, 1); break;
+			default: morph = new Morph(transform, Morph.COSINE, 1); break;
+		}
+		morph.addPositionX(100).addPositionY(50).addRotation(3).addScaleW(2).addScaleH(2);
+	}
+
+	/**
+	 * small enough steps that the morph never finishes during an iteration
+	 */
+	@Setup(Level.Iteration)
+	public void restart() {
+		Base.time = 1e-9;
+		transform.set(0, 0, 32, 32, 0);
+		morph.reset();
+	}
+
+	@Benchmark
+	public Transform update() {
+		morph.update();
+		return transform;
+	}
+
+}
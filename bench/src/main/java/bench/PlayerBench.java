@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.graphics.Transform;
+import game.scenes.game.GameAssets;
+import game.scenes.game.GameScene;
+import game.scenes.game.SparkLevel;
+import game.scenes.game.entities.Player;
+
+/**
+ * one Player.update moving fast through a map that's mostly solid,
+ * so the collision loop has plenty of blocks to check
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBench {
+
+	public static final int SIZE = 256;
+
+	private Player player;
+	private float startX;
+	private float startY;
+
+	private static class DenseLevel extends SparkLevel {
+		DenseLevel(String path) {
+			super(path, Headless.sparkBlocks());
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		GameScene scene = Headless.game();
+
+		SparkLevel level = new DenseLevel(Headless.levelImage(SIZE, SIZE, new int[] {Headless.PLAIN}, 0.6, 43));
+		level.load();
+		GameAssets.currentLevel = level;
+		GameAssets.currentMap = level.createMap(0, 0, 0);
+		GameAssets.numBatteries = 0;
+		scene.deathBarrier = Float.MAX_VALUE;
+		scene.pressRight = true;
+		scene.pressJump = true;
+
+		startX = level.startX;
+		startY = level.startY;
+		player = new Player();
+		scene.createEntity(player, startX, startY);
+		player.controllable = true;
+	}
+
+	@Benchmark
+	public float update() {
+		Transform t = player.getTransform();
+		t.setTranslation(startX, startY);
+		player.velocityX = Player.maxX;
+		player.velocityY = Player.jumpV;
+		player.update();
+		return t.x + t.y;
+	}
+
+}
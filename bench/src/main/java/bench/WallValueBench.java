@@ -0,0 +1,54 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cnge.core.TileGrid;
+import game.scenes.game.SparkLevel;
+
+/**
+ * SparkLevel.onLevelLoad, working out the wall values and spawn points after the tiles are loaded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WallValueBench {
+
+	@Param({"64", "256", "1024"})
+	public int size;
+
+	private SparkLevel level;
+
+	private static class BenchLevel extends SparkLevel {
+		BenchLevel(String path) {
+			super(path, Headless.sparkBlocks());
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		level = new BenchLevel(Headless.levelImage(size, size, new int[] {Headless.PLAIN, 0xff00c8c8, 0xff00ffff}, 0.4, 43));
+		level.load();
+	}
+
+	@Benchmark
+	public TileGrid onLevelLoad() {
+		level.onLevelLoad();
+		return level.getTiles(0);
+	}
+
+}
@@ -0,0 +1,13 @@
+#version 330 core
+
+uniform sampler2D sampler;
+
+in vec2 texCoords;
+in vec4 outColor;
+
+out vec4 color;
+
+void main(){
+	color = texture(sampler, texCoords);
+	color *= outColor;
+}
\ No newline at end of file
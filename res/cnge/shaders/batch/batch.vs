@@ -0,0 +1,18 @@
+#version 330 core
+
+layout (location = 0) in vec3 vertices;
+layout (location = 1) in vec2 iTexCoords;
+layout (location = 2) in vec4 iColor;
+
+uniform mat4 mvp;
+
+out vec2 texCoords;
+out vec4 outColor;
+
+void main() {
+	
+	texCoords = iTexCoords;
+    gl_Position = mvp*vec4(vertices, 1);
+    outColor = iColor;
+    
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+#version 330 core
+
+//the tile sheet
+uniform sampler2D sampler;
+//one texel per block, 0 is empty, otherwise (frame x + 1) | (frame y << 8)
+uniform usampler2D grid;
+
+//the size of one frame in the tile sheet, and where the sheet starts
+uniform vec4 frame;
+uniform ivec2 mapSize;
+//how each axis is accessed outside of the map, 0 clamp, 1 repeat, 2 nothing
+uniform ivec2 wrap;
+uniform vec4 inColor;
+
+in vec2 position;
+
+out vec4 color;
+
+int access(int v, int size, int mode) {
+	if(v >= 0 && v < size) {
+		return v;
+	} else if(mode == 0) {
+		return clamp(v, 0, size - 1);
+	} else if(mode == 1) {
+		return ((v % size) + size) % size;
+	}
+	return -1;
+}
+
+void main() {
+	ivec2 block = ivec2(floor(position));
+	int x = access(block.x, mapSize.x, wrap.x);
+	int y = access(block.y, mapSize.y, wrap.y);
+	if(x < 0 || y < 0) {
+		discard;
+	}
+	
+	uint cell = texelFetch(grid, ivec2(x, y), 0).r;
+	if(cell == 0u) {
+		discard;
+	}
+	
+	vec2 f = vec2(float((cell & 255u) - 1u), float(cell >> 8u));
+	color = texture(sampler, (f + fract(position)) * frame.xy + frame.zw);
+	color *= inColor;
+}
\ No newline at end of file
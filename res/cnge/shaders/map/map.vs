@@ -0,0 +1,22 @@
+#version 330 core
+
+layout (location = 0) in vec3 vertices;
+
+//shared by every shader, the camera writes it once when it updates
+layout (std140) uniform Camera {
+	mat4 projectionView;
+	mat4 projection;
+};
+
+uniform mat4 model;
+//left, up, across, down of the drawn area, in blocks
+uniform vec4 area;
+
+out vec2 position;
+
+void main() {
+	
+	position = area.xy + vertices.xy * area.zw;
+    gl_Position = projectionView*model*vec4(vertices, 1);
+    
+}
\ No newline at end of file
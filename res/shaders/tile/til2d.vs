@@ -3,7 +3,13 @@
 layout (location = 0) in vec3 vertices;
 layout (location = 1) in vec2 iTexCoords;
 
-uniform mat4 mvp;
+//shared by every shader, the camera writes it once when it updates
+layout (std140) uniform Camera {
+	mat4 projectionView;
+	mat4 projection;
+};
+
+uniform mat4 model;
 uniform vec4 frame; 
 uniform vec4 inColor;
 
@@ -13,7 +19,7 @@ out vec4 outColor;
 void main() {
 	
 	texCoords = iTexCoords * frame.xy + frame.zw;
-    gl_Position = mvp*vec4(vertices, 1);
+    gl_Position = projectionView*model*vec4(vertices, 1);
     outColor = inColor;
     
 }
\ No newline at end of file
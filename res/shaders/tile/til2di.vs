@@ -0,0 +1,25 @@
+#version 330 core
+
+layout (location = 0) in vec3 vertices;
+layout (location = 1) in vec2 iTexCoords;
+//per instance, x y of the top left then width height
+layout (location = 2) in vec4 iModel;
+layout (location = 3) in vec4 iFrame;
+layout (location = 4) in vec4 iColor;
+
+//shared by every shader, the camera writes it once when it updates
+layout (std140) uniform Camera {
+	mat4 projectionView;
+	mat4 projection;
+};
+
+out vec2 texCoords;
+out vec4 outColor;
+
+void main() {
+	
+	texCoords = iTexCoords * iFrame.xy + iFrame.zw;
+    gl_Position = projectionView*vec4(vertices.xy * iModel.zw + iModel.xy, vertices.z, 1);
+    outColor = iColor;
+    
+}
\ No newline at end of file
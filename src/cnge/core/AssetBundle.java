@@ -7,6 +7,10 @@ import cnge.core.AssetBundle.SceneLoadAction;
 abstract public class AssetBundle<S extends Scene<S>> {
 	
 	protected static Base base;
+	/**
+	 * load shared assets through this, they're released when the bundle unloads
+	 */
+	protected static AssetRegistry registry;
 	private S scene;
 	protected LoadAction[] loads;
 	protected SceneLoadAction<S>[] sceneLoads;
@@ -28,35 +32,74 @@ abstract public class AssetBundle<S extends Scene<S>> {
 		
 		int num0 = loads.length;
 		int num1 = sceneLoads.length;
-		loadScreen.startLoad(num0 + num1);
 		
-		//do an initial render with nothing loaded so far
-		loadScreen.render();
+		//nothing to show the progress on without a window
+		boolean show = !base.isHeadless();
+		
+		if(show) {
+			loadScreen.startLoad(num0 + num1);
+			
+			//do an initial render with nothing loaded so far
+			loadScreen.render();
+		}
+		
+		//everything from the registry in here belongs to this bundle
+		registry.setHolder(this);
 		
 		//do all of our loads
 		for(int i = 0; i < num0; ++i) {
 			loads[i].load();
 			//ok we loaded that now SHOW us
-			loadScreen.setLoaded();
-			
-			base.update();
-			base.render();
+			if(show) {
+				loadScreen.setLoaded();
+				
+				base.update();
+				base.render();
+			}
 		}
 		
 		for(int i = 0; i < num1; ++i) {
 			sceneLoads[i].load(scene);
-			loadScreen.setLoaded();
-			base.update();
-			base.render();
+			if(show) {
+				loadScreen.setLoaded();
+				base.update();
+				base.render();
+			}
 		}
 		
+		registry.setHolder(null);
+		
 		base.setLoading(null, false);
 	}
 	
+	/**
+	 * lets go of every shared asset this bundle loaded,
+	 * anything another bundle still uses stays loaded
+	 */
+	public void unload() {
+		registry.releaseAll(this);
+	}
+	
 	public interface LoadAction {
 		public void load();
 	}
 	
+	/**
+	 * wraps a load that makes textures, shaders or anything else on the gpu,
+	 * so it's skipped when the base is headless
+	 * 
+	 * @param l - the load
+	 * 
+	 * @return a load that only happens with a window
+	 */
+	protected static LoadAction graphics(LoadAction l) {
+		return () -> {
+			if(!base.isHeadless()) {
+				l.load();
+			}
+		};
+	}
+	
 	public interface SceneLoadAction<S> {
 		public void load(S s);
 	}
@@ -65,4 +108,8 @@ abstract public class AssetBundle<S extends Scene<S>> {
 		base = b;
 	}
 	
+	public static void giveRegistry(AssetRegistry r) {
+		registry = r;
+	}
+	
 }
\ No newline at end of file
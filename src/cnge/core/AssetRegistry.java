@@ -0,0 +1,202 @@
+package cnge.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import cnge.graphics.Shader;
+import cnge.graphics.SoundBuffer;
+import cnge.graphics.texture.Texture;
+import cnge.graphics.texture.TexturePreset;
+import cnge.graphics.texture.TileTexture;
+
+/**
+ * hands out shared assets, so loading the same thing twice gives back the first one.
+ *
+ * assets are looked up by path and whatever options change how they load.
+ * every get has to be paired with a {@link #release(Object)},
+ * and the asset is destroyed when the last holder releases it.
+ *
+ * while a holder is set, everything gotten is remembered for it,
+ * so an asset bundle can let go of everything it loaded at once with {@link #releaseAll(Object)}
+ */
+public class AssetRegistry {
+
+	/**
+	 * how to get rid of an asset once nobody holds it
+	 */
+	public interface Freer<T> {
+		public void free(T t);
+	}
+
+	private static class Entry {
+		String key;
+		Object asset;
+		Freer<Object> freer;
+		int refs;
+		long bytes;
+	}
+
+	private HashMap<String, Entry> byKey;
+	private IdentityHashMap<Object, Entry> byAsset;
+	
+	private Object holder;
+	private IdentityHashMap<Object, ArrayList<Object>> held;
+
+	private int hits;
+	private int misses;
+	private long bytesHeld;
+
+	public AssetRegistry() {
+		byKey = new HashMap<String, Entry>();
+		byAsset = new IdentityHashMap<Object, Entry>();
+		held = new IdentityHashMap<Object, ArrayList<Object>>();
+	}
+	
+	/**
+	 * everything gotten after this is held by h, until the holder is set to something else
+	 *
+	 * @param h - who's loading, or null for nobody
+	 */
+	public void setHolder(Object h) {
+		holder = h;
+	}
+	
+	/**
+	 * releases everything that was gotten while h was the holder.
+	 * the last thing gotten goes first, since it might use what was gotten before it
+	 *
+	 * @param h - the holder
+	 */
+	public void releaseAll(Object h) {
+		ArrayList<Object> list = held.remove(h);
+		if(list != null) {
+			for(int i = list.size() - 1; i >= 0; --i) {
+				release(list.get(i));
+			}
+		}
+	}
+	
+	private void hold(Object asset) {
+		if(holder != null) {
+			held.computeIfAbsent(holder, (k) -> new ArrayList<Object>()).add(asset);
+		}
+	}
+
+	/**
+	 * the general way to get something shared
+	 *
+	 * @param key - what makes this asset different from every other one
+	 * @param make - loads the asset if nobody has it yet
+	 * @param free - destroys the asset
+	 * @param size - how many bytes the asset takes up, once it's made
+	 *
+	 * @return the shared asset
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(String key, Supplier<T> make, Freer<T> free, ToLongFunction<T> size) {
+		Entry e = byKey.get(key);
+		if(e != null) {
+			++e.refs;
+			++hits;
+			hold(e.asset);
+			return (T)e.asset;
+		}
+		++misses;
+		T asset = make.get();
+		e = new Entry();
+		e.key = key;
+		e.asset = asset;
+		e.freer = (Freer<Object>)free;
+		e.refs = 1;
+		e.bytes = size.applyAsLong(asset);
+		byKey.put(key, e);
+		byAsset.put(asset, e);
+		bytesHeld += e.bytes;
+		hold(asset);
+		return asset;
+	}
+
+	public Texture texture(String path, TexturePreset tp) {
+		return get("texture " + path + presetKey(tp), () -> new Texture(path, tp), Texture::destroy, AssetRegistry::textureBytes);
+	}
+
+	public TileTexture tileTexture(String path, int fw, int ft, TexturePreset tp) {
+		return get("tile " + path + " " + fw + "x" + ft + presetKey(tp), () -> new TileTexture(path, fw, ft, tp), TileTexture::destroy, AssetRegistry::textureBytes);
+	}
+
+	public SoundBuffer sound(String path) {
+		return get("sound " + path, () -> new SoundBuffer(path), SoundBuffer::destroy, SoundBuffer::getBytes);
+	}
+
+	/**
+	 * shaders always load the same files, so one of each class is enough
+	 *
+	 * @param type - the shader class
+	 * @param make - usually the constructor, like TileShader::new
+	 */
+	public <S extends Shader> S shader(Class<S> type, Supplier<S> make) {
+		return get("shader " + type.getName(), make, Shader::destroy, (s) -> 0);
+	}
+
+	/**
+	 * lets go of an asset, it's destroyed if this was the last holder
+	 *
+	 * @param asset - something that came from this registry
+	 */
+	public void release(Object asset) {
+		Entry e = byAsset.get(asset);
+		if(e == null) {
+			throw new IllegalArgumentException(asset + " didn't come from this registry, or was already freed");
+		}
+		if(--e.refs == 0) {
+			byKey.remove(e.key);
+			byAsset.remove(asset);
+			bytesHeld -= e.bytes;
+			e.freer.free(asset);
+		}
+	}
+
+	private static String presetKey(TexturePreset tp) {
+		return (tp.clampHorz ? " ch" : "") + (tp.clampVert ? " cv" : "") + (tp.nearest ? " n" : "");
+	}
+
+	private static long textureBytes(Texture t) {
+		return (long)t.getWidth() * t.getHeight() * 4;
+	}
+
+	/**
+	 * @return how many gets found the asset already loaded
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return how many gets had to load the asset
+	 */
+	public int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return about how many bytes all the held assets take up
+	 */
+	public long getBytesHeld() {
+		return bytesHeld;
+	}
+
+	/**
+	 * @return how many different assets are loaded
+	 */
+	public int getCount() {
+		return byKey.size();
+	}
+
+	public String report() {
+		return "assets: " + getCount() + " held, " + bytesHeld + " bytes, " + hits + " hits, " + misses + " misses";
+	}
+
+}
@@ -6,11 +6,20 @@ import static org.lwjgl.opengl.GL11.glClearColor;
 
 import static org.lwjgl.opengl.GL11.*;
 
+import java.io.IOException;
+
+import org.joml.Matrix4f;
+
 import cnge.graphics.ALManagement;
 import cnge.graphics.Camera;
 import cnge.graphics.FBO;
+import cnge.graphics.RenderState;
+import cnge.graphics.RenderTargetPool;
 import cnge.graphics.Shader;
 import cnge.graphics.Shape;
+import cnge.graphics.SoundBank;
+import cnge.graphics.SpriteBatch;
+import cnge.graphics.Transform;
 import cnge.graphics.Window;
 import cnge.graphics.texture.Texture;
 import cnge.graphics.texture.TexturePreset;
@@ -24,11 +33,39 @@ abstract public class Base {
 	public static double time;
 	public static long nanos;
 	
+	/**
+	 * whether the game is updating at a fixed rate, see {@link BasePreset#fixedStep(int, int)}
+	 */
+	public static boolean fixedStep;
+	/**
+	 * how many fixed updates have happened
+	 */
+	public static long ticks;
+	/**
+	 * how far between the last fixed update and the next one this frame is, 0 to 1
+	 */
+	public static float alpha;
+	
+	/**
+	 * nothing gets drawn or played, see {@link #Base(BasePreset, Input)}
+	 */
+	public static boolean headless;
+	
+	/**
+	 * how fast a headless base updates when the preset doesn't have a tick rate
+	 */
+	public static final int DEFAULT_TICK_RATE = 60;
+	
 	public static Window window;
 	protected Camera camera;
 	protected ALManagement audio;
 
-	private int frameRate;
+	private FramePacer pacer;
+	
+	private Input input;
+	
+	private boolean profilerGraph;
+	private long simulated;
 	
 	private Scene scene;
 	private LoadScreen loadScreen;
@@ -36,6 +73,11 @@ abstract public class Base {
 	private boolean loading;
 	
 	private BaseShader baseShader;
+	private Matrix4f screenMatrix = new Matrix4f();
+	
+	private SpriteBatch batch;
+	
+	private AssetRegistry registry;
 	
 	public static FBO screenBuffer;
 	
@@ -62,6 +104,17 @@ abstract public class Base {
 	
 	private boolean beingResized;
 	
+	private long tickNanos;
+	private int maxSteps;
+	private long accumulator;
+	private Transform previousCamera = new Transform();
+	private Transform currentCamera = new Transform();
+	private boolean cameraLerped;
+	
+	private boolean resizePending;
+	private int resizeWidth;
+	private int resizeHeight;
+	
 	/**
 	 * The base of the entire program. Create one in your own main method
 	 * 
@@ -82,8 +135,7 @@ abstract public class Base {
 	 */
 	public Base(Window win, BasePreset set) {
 		window = win;
-		
-		frameRate = window.getRefreshRate() + 10;
+		input = win;
 		
 		camera = new Camera(1, 1);
 		
@@ -91,12 +143,19 @@ abstract public class Base {
 		
 		baseShader = new BaseShader();
 		
+		batch = new SpriteBatch(new BatchShader(), 4096);
+		
 		Scene.giveStuff(camera, this, window);
+		Scene.giveInput(input);
 		AssetBundle.giveBase(this);
+		AssetBundle.giveRegistry(registry = new AssetRegistry());
 		Shape.giveCamera(camera);
 		FBO.giveStuff(window, camera);
 		Entity.giveCamera(camera);
+		Entity.giveBatch(batch);
 		Font.giveCamera(camera);
+		Font.giveBatch(batch);
+		SoundBank.giveCamera(camera);
 		
 		rect = Shape.RECT;
 		
@@ -108,17 +167,111 @@ abstract public class Base {
 		gameHeight = set.height;
 		gameLimit = set.limit;
 		
+		if(set.frameRate > 0) {
+			window.setVsync(false);
+			pacer = new FramePacer(set.frameRate);
+		} else {
+			//the swap waits for vsync, this only keeps it from running away if vsync is off in the driver
+			window.setVsync(true);
+			pacer = new FramePacer(window.getRefreshRate() + 10);
+			pacer.setExpectedRate(window.getRefreshRate());
+		}
+		
+		fixedStep = set.tickRate > 0;
+		if(fixedStep) {
+			tickNanos = 1000000000L / set.tickRate;
+			maxSteps = Math.max(set.maxSteps, 1);
+		}
+		
 		camera.giveDefaults(gameWidth, gameHeight);
 		
+		//a drag sends a bunch of these, so only the last one each frame does anything
 		window.setResize(
 			(w, h) -> {
-				reFrame(w, h);
+				resizeWidth = w;
+				resizeHeight = h;
+				resizePending = true;
 			}
 		);
 		
 		reFrame(window.getWidth(), window.getHeight());
 	}
 	
+	/**
+	 * a base with no window, no opengl and no openal, that only ever updates.
+	 * use {@link #simulate(Scene, long)} instead of start
+	 * 
+	 * @param set - only the game size and tick rate are used
+	 * @param in - where the keys come from, usually a {@link ScriptedInput}
+	 */
+	public Base(BasePreset set, Input in) {
+		headless = true;
+		input = in;
+		
+		camera = new Camera(1, 1);
+		
+		Scene.giveStuff(camera, this, null);
+		Scene.giveInput(input);
+		AssetBundle.giveBase(this);
+		AssetBundle.giveRegistry(registry = new AssetRegistry());
+		Entity.giveCamera(camera);
+		SoundBank.giveCamera(camera);
+		
+		gameWidth = set.width;
+		gameHeight = set.height;
+		
+		fixedStep = set.tickRate > 0;
+		tickNanos = 1000000000L / (fixedStep ? set.tickRate : DEFAULT_TICK_RATE);
+		maxSteps = 1;
+		
+		camera.giveDefaults(gameWidth, gameHeight);
+		camera.setDims(gameWidth, gameHeight);
+	}
+	
+	/**
+	 * runs a scene's updates as fast as they'll go, nothing is rendered.
+	 * every update gets the same time, so the same input script always ends up the same way.
+	 * stops early if the scene changes to another one
+	 * 
+	 * @param s - the scene to run
+	 * @param n - how many updates
+	 * 
+	 * @return updates per second
+	 */
+	public double simulate(Scene<?> s, long n) {
+		scene = s;
+		Entity.giveScene(s);
+		scene.start();
+		scene.assets.load();
+		
+		time = tickNanos / 1000000000d;
+		simulated = 0;
+		long start = System.nanoTime();
+		while(simulated < n && scene == s) {
+			Profiler.beginFrame();
+			Profiler.begin(Profiler.UPDATE);
+			input.update();
+			++ticks;
+			scene.update();
+			camera.update();
+			Profiler.end(Profiler.UPDATE);
+			++simulated;
+		}
+		long took = System.nanoTime() - start;
+		return simulated / (took / 1000000000d);
+	}
+	
+	/**
+	 * @return how many updates the last {@link #simulate(Scene, long)} got through
+	 */
+	public long getSimulated() {
+		return simulated;
+	}
+	
+	public boolean isHeadless() {
+		return headless;
+	}
+	
 	/**
 	 * this is the last thing you call in main to start the game
 	 * 
@@ -140,9 +293,27 @@ abstract public class Base {
 	 * @param s - the scene to change to
 	 */
 	public void setScene(Scene s) {
+		Scene<?> old = scene;
 		scene = s;
 		Entity.giveScene(s);
 		scene.start();
+		//the new bundle is loaded before the old one lets go,
+		//so anything both scenes use is still held and doesn't get destroyed and loaded again
+		scene.assets.load();
+		if(old != null) {
+			old.assets.unload();
+		}
+	}
+	
+	/**
+	 * draws the profiler's frame times over the game
+	 */
+	public void setProfilerGraph(boolean g) {
+		profilerGraph = g;
+	}
+	
+	public FramePacer getPacer() {
+		return pacer;
 	}
 	
 	public void setLoading(LoadScreen s, boolean l) {
@@ -214,10 +385,11 @@ abstract public class Base {
 		
 		screenType.reFrame(this, w, h);
 		
-		if(gamePixelType) {
-			screenBuffer.replaceTexture(new Texture(gameWidth, gameHeight, new TexturePreset().nearest(true)));
-		} else {
-			screenBuffer.replaceTexture(new Texture(frameWidth, frameHeight, new TexturePreset().nearest(true)));
+		int bw = gamePixelType ? gameWidth : frameWidth;
+		int bh = gamePixelType ? gameHeight : frameHeight;
+		Texture old = screenBuffer.getTexture();
+		if(old.getWidth() != bw || old.getHeight() != bh) {
+			RenderTargetPool.release(screenBuffer.replaceTexture(RenderTargetPool.acquire(bw, bh, new TexturePreset().nearest(true))));
 		}
 		
 		camera.setDims(gameWidth, gameHeight);
@@ -229,51 +401,106 @@ abstract public class Base {
 	}
 	
 	public void gameLoop() {
-		long usingFPS = 1000000000 / frameRate;
-		long last = System.nanoTime();
-		long lastSec = last;
+		long lastSec = System.nanoTime();
 		int frames = 0;
 		while(!window.shouldClose()) {
-			long now = System.nanoTime();
-			if(now-last > usingFPS) {
-				nanos = (now-last);
-				
-				//resize time lock
-				//beingResized will be enabled by the reframe method
-				if(beingResized) {
-					time = 0;
-				} else {
-					time = (nanos)/1000000000d;
-				}
-				beingResized = false;
-				
-				update();
-				render();
-				
-				last = now; 
-				++frames;
+			Profiler.beginFrame();
+			
+			Profiler.begin(Profiler.WAIT);
+			nanos = pacer.waitForFrame();
+			Profiler.end(Profiler.WAIT);
+			
+			//resize time lock
+			//beingResized will be enabled by the reframe method
+			if(beingResized) {
+				time = 0;
+			} else {
+				time = (nanos)/1000000000d;
 			}
+			beingResized = false;
+			
+			update();
+			render();
+			
+			++frames;
+			
+			long now = System.nanoTime();
 			if(now-lastSec > 1000000000) {
 				fps = frames; 
 				frames = 0;
 				lastSec = now;
-				System.out.println(fps);
+				System.out.println(fps + " fps, " + pacer.report());
+			}
+		}
+		
+		//-Dcnge.profile=file.csv to keep the last frames' timings
+		String dump = System.getProperty("cnge.profile");
+		if(dump != null) {
+			try {
+				Profiler.dump(dump);
+			} catch(IOException ex) {
+				ex.printStackTrace();
 			}
 		}
+		Profiler.destroy();
 		audio.destroy();
 	}
 	
 	public void update() {
+		Profiler.begin(Profiler.EVENTS);
 		window.update();
 		
-		if(!loading) {
-			scene.update();
+		if(resizePending) {
+			resizePending = false;
+			reFrame(resizeWidth, resizeHeight);
+		}
+		Profiler.end(Profiler.EVENTS);
+		
+		Profiler.begin(Profiler.UPDATE);
+		if(!fixedStep) {
+			if(!loading) {
+				scene.update();
+			}
+			camera.update();
+			Profiler.end(Profiler.UPDATE);
+			return;
 		}
 		
+		Transform ct = camera.getTransform();
+		
+		accumulator += nanos;
+		int steps = 0;
+		while(accumulator >= tickNanos && steps < maxSteps) {
+			//always the same amount of time, however long the frame took
+			time = tickNanos / 1000000000d;
+			++ticks;
+			previousCamera.set(ct);
+			if(!loading) {
+				scene.update();
+			}
+			accumulator -= tickNanos;
+			++steps;
+		}
+		//too far behind to catch up, drop the time instead of piling up more updates next frame
+		if(accumulator >= tickNanos) {
+			accumulator %= tickNanos;
+		}
+		alpha = (float)accumulator / tickNanos;
+		
+		//the camera is rendered in between too, and put back after render for the next update.
+		//it stays in between for all of render so gui matrices and setDims see the same spot
+		currentCamera.set(ct);
+		if(ticks > 0) {
+			ct.lerp(previousCamera, currentCamera, alpha);
+			cameraLerped = true;
+		}
 		camera.update();
+		Profiler.end(Profiler.UPDATE);
 	}
 	
 	public void render() {
+		Profiler.begin(Profiler.RENDER);
+		Profiler.gpuBegin(Profiler.RENDER);
 		
 		//start up that mf game screenBuffer
 		screenBuffer.enable();
@@ -287,6 +514,17 @@ abstract public class Base {
 			scene.render();
 		}
 		
+		if(cameraLerped) {
+			camera.getTransform().set(currentCamera);
+			cameraLerped = false;
+		}
+		
+		Profiler.gpuEnd(Profiler.RENDER);
+		Profiler.end(Profiler.RENDER);
+		
+		Profiler.begin(Profiler.BLIT);
+		Profiler.gpuBegin(Profiler.BLIT);
+		
 		FBO.enableDefault();
 		//close down that mf screenBuffer
 		
@@ -298,7 +536,7 @@ abstract public class Base {
 		
 		baseShader.enable();
 		
-		baseShader.setMvp(camera.ndcFullMatrix());
+		baseShader.setMvp(camera.ndcFullMatrix(screenMatrix));
 		
 		if(fullWidth) {
 			glViewport(0, window.getHeight()/2 - frameHeight/2, frameWidth, frameHeight);
@@ -311,8 +549,20 @@ abstract public class Base {
 		Shader.disable();
 		
 		Texture.unbind();
+		
+		if(profilerGraph) {
+			glViewport(0, 0, window.getWidth(), window.getHeight());
+			Profiler.renderGraph(batch, window.getWidth(), window.getHeight(), 1000000000L / window.getRefreshRate());
+		}
+		
+		Profiler.gpuEnd(Profiler.BLIT);
+		Profiler.end(Profiler.BLIT);
 
+		Profiler.begin(Profiler.SWAP);
 		window.swap();
+		Profiler.end(Profiler.SWAP);
+		
+		RenderState.endFrame();
 	}
 	
 }
\ No newline at end of file
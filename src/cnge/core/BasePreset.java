@@ -14,6 +14,17 @@ public class BasePreset {
 	public int height;
 	public int limit;
 	
+	/**
+	 * updates per second when using a fixed step, 0 means update once every frame with the frame's time
+	 */
+	public int tickRate;
+	public int maxSteps;
+	
+	/**
+	 * frames per second to render at, 0 means vsync
+	 */
+	public int frameRate;
+	
 	/**
 	 * use this one for a game that has a fixed or expandable virtual ratio without bound
 	 * @param s - screen mode
@@ -46,6 +57,33 @@ public class BasePreset {
 		limit = li;
 	}
 	
+	/**
+	 * makes the game update at a fixed rate no matter the frame rate, rendering in between updates.
+	 * every update gets exactly the same time, so the same inputs always do the same thing
+	 * 
+	 * @param r - updates per second
+	 * @param m - the most updates to catch up on in one frame, past that the game just slows down
+	 * 
+	 * @return this preset
+	 */
+	public BasePreset fixedStep(int r, int m) {
+		tickRate = r;
+		maxSteps = m;
+		return this;
+	}
+	
+	/**
+	 * renders at a set frame rate with vsync off, instead of at the monitor's refresh rate
+	 * 
+	 * @param f - frames per second, 0 for vsync
+	 * 
+	 * @return this preset
+	 */
+	public BasePreset frameRate(int f) {
+		frameRate = f;
+		return this;
+	}
+	
 	/**
 	 * use this one for pixel screenspace
 	 */
@@ -0,0 +1,14 @@
+package cnge.core;
+
+import cnge.graphics.Shader;
+
+/**
+ * the default shader for the sprite batch, a texture times the vertex color
+ */
+public class BatchShader extends Shader{
+
+	public BatchShader() {
+		super("res/cnge/shaders/batch/batch.vs", "res/cnge/shaders/batch/batch.fs");
+	}
+
+}
\ No newline at end of file
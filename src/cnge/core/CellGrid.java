@@ -0,0 +1,48 @@
+package cnge.core;
+
+/**
+ * something that holds the cells of a map, this is all a {@link Map} needs from its tiles.
+ *
+ * cells are packed the way {@link TileGrid#cell(int, int)} packs them,
+ * the block id plus one in the low byte and the flags in the high byte.
+ * {@link TileGrid} has every cell in memory, {@link StreamedGrid} only the chunks around the camera
+ */
+public interface CellGrid {
+
+	/**
+	 * @return the whole cell, use {@link TileGrid#block(int)} and {@link TileGrid#flags(int)} to get what's in it
+	 */
+	int getCell(int x, int y);
+
+	void setCell(int x, int y, int c);
+
+	int getWidth();
+
+	int getHeight();
+
+	/**
+	 * @return the block id at a spot
+	 */
+	default int get(int x, int y) {
+		return (getCell(x, y) & 0xff) - 1;
+	}
+
+	/**
+	 * changes the block at a spot, its flags stay the same
+	 */
+	default void set(int x, int y, int block) {
+		setCell(x, y, (getCell(x, y) & 0xff00) | (block + 1));
+	}
+
+	default int getFlags(int x, int y) {
+		return getCell(x, y) >>> 8;
+	}
+
+	/**
+	 * changes the flags at a spot, the block stays the same
+	 */
+	default void setFlags(int x, int y, int flags) {
+		setCell(x, y, (getCell(x, y) & 0xff) | (flags << 8));
+	}
+
+}
@@ -0,0 +1,136 @@
+package cnge.core;
+
+/**
+ * an int to int hash map with no boxing, for looking up which block a pixel color is.
+ *
+ * open addressing with linear probing, the table is always a power of two and never more than half full
+ */
+public class ColorTable {
+
+	/**
+	 * what get returns when the color isn't in the table
+	 */
+	public static final int MISSING = Integer.MIN_VALUE;
+
+	private int[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int mask;
+	private int size;
+
+	/**
+	 * @param expected - about how many colors are going in
+	 */
+	public ColorTable(int expected) {
+		int cap = 8;
+		while(cap < expected * 2) {
+			cap <<= 1;
+		}
+		keys = new int[cap];
+		values = new int[cap];
+		used = new boolean[cap];
+		mask = cap - 1;
+	}
+
+	/**
+	 * maps every block's color to its id, if two blocks share a color the later one wins
+	 *
+	 * @param bs - the block set
+	 */
+	public ColorTable(BlockSet<?> bs) {
+		this(bs.getLength());
+		for(int i = 0; i < bs.getLength(); ++i) {
+			put(bs.get(i).colorCode, i);
+		}
+	}
+
+	private int slot(int key) {
+		//spread the bits, colors that only differ in blue would all land together otherwise
+		int h = key * 0x9e3779b9;
+		int i = (h ^ (h >>> 16)) & mask;
+		while(used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	public void put(int key, int value) {
+		int i = slot(key);
+		if(!used[i]) {
+			used[i] = true;
+			keys[i] = key;
+			++size;
+		}
+		values[i] = value;
+		if(size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * @return the value for the key, or {@link #MISSING}
+	 */
+	public int get(int key) {
+		int i = slot(key);
+		return used[i] ? values[i] : MISSING;
+	}
+
+	/**
+	 * adds to the value for a key, for counting
+	 */
+	public void add(int key, int amount) {
+		int i = slot(key);
+		if(used[i]) {
+			values[i] += amount;
+		} else {
+			put(key, amount);
+		}
+	}
+
+	/**
+	 * adds every value in another table onto this one
+	 */
+	public void addAll(ColorTable t) {
+		for(int i = 0; i < t.keys.length; ++i) {
+			if(t.used[i]) {
+				add(t.keys[i], t.values[i]);
+			}
+		}
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldUsed = used;
+		keys = new int[oldKeys.length * 2];
+		values = new int[oldKeys.length * 2];
+		used = new boolean[oldKeys.length * 2];
+		mask = keys.length - 1;
+		size = 0;
+		for(int i = 0; i < oldKeys.length; ++i) {
+			if(oldUsed[i]) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * goes through every key and value, in no particular order
+	 */
+	public interface Visitor {
+		public void visit(int key, int value);
+	}
+
+	public void forEach(Visitor v) {
+		for(int i = 0; i < keys.length; ++i) {
+			if(used[i]) {
+				v.visit(keys[i], values[i]);
+			}
+		}
+	}
+
+}
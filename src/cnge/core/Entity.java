@@ -1,6 +1,9 @@
 package cnge.core;
 
+import org.joml.Matrix4f;
+
 import cnge.graphics.Camera;
+import cnge.graphics.SpriteBatch;
 import cnge.graphics.Transform;
 
 abstract public class Entity {
@@ -12,12 +15,29 @@ abstract public class Entity {
 	
 	protected Transform transform;
 	
+	/*
+	 * where the entity was at the start of the last fixed update, for rendering in between
+	 */
+	private Transform previous;
+	private Transform current;
+	private long storedTick;
+	
+	/**
+	 * somewhere to put the mvp matrix when rendering, so rendering doesn't make a new one every frame
+	 */
+	protected Matrix4f mvp;
+	
 	protected static Scene scene;
 	protected static Camera camera;
+	protected static SpriteBatch batch;
 	
 	public Entity() {
 		onScreen = true;
 		transform = new Transform();
+		previous = new Transform();
+		current = new Transform();
+		storedTick = -1;
+		mvp = new Matrix4f();
 	}
 	
 	/**
@@ -34,6 +54,10 @@ abstract public class Entity {
 		camera = c;
 	}
 	
+	public static void giveBatch(SpriteBatch b) {
+		batch = b;
+	}
+	
 	public static void giveScene(Scene s) {
 		scene = s;
 	}
@@ -45,6 +69,29 @@ abstract public class Entity {
 	
 	abstract public void render();
 	
+	/**
+	 * remembers where the entity is before it updates
+	 */
+	void tick() {
+		previous.set(transform);
+		storedTick = Base.ticks;
+	}
+	
+	/**
+	 * with a fixed step, renders the entity part of the way between its last update and this one.
+	 * entities that weren't updated last tick just render where they are
+	 */
+	void interpolatedRender() {
+		if(!Base.fixedStep || storedTick != Base.ticks) {
+			render();
+			return;
+		}
+		current.set(transform);
+		transform.lerp(previous, current, Base.alpha);
+		render();
+		transform.set(current);
+	}
+	
 	public void setAlwaysOn(boolean a) {
 		alwaysOn = a;
 	}
@@ -6,11 +6,13 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import cnge.graphics.Camera;
+import cnge.graphics.SpriteBatch;
 import cnge.graphics.texture.TileTexture;
 
 abstract public class Font {
 	
 	protected static Camera camera;
+	protected static SpriteBatch batch;
 	
 	protected TileTexture texture;
 	
@@ -33,15 +35,23 @@ abstract public class Font {
 	
 	public Font(String texPath, String dataPath) {
 		loadData(dataPath);
-		texture = new TileTexture(texPath, across, down);
+		//a headless base can still lay text out, it just can't draw it
+		if(!Base.headless) {
+			texture = new TileTexture(texPath, across, down);
+		}
 	}
 	
 	public static void giveCamera(Camera c) {
 		camera = c;
 	}
 	
+	public static void giveBatch(SpriteBatch b) {
+		batch = b;
+	}
+	
 	/**
-	 * called once per char
+	 * called once per char, in between the batch's begin and end,
+	 * so add the char to the batch instead of drawing it yourself
 	 * 
 	 * @param cx - the tile x of the char in the texture
 	 * @param cy - the tile y of the char in the texture
@@ -52,6 +62,16 @@ abstract public class Font {
 	 * 
 	 */
 	public void render(char[] sequence, float x, float y, float scale, boolean centered) {
+		batch.begin(camera.getProjection());
+		layout(sequence, x, y, scale, centered);
+		batch.end();
+	}
+	
+	/**
+	 * works out where each char goes and calls {@link #charRender(int, int, float, float, float, float)} for it,
+	 * without starting or ending the batch
+	 */
+	public void layout(char[] sequence, float x, float y, float scale, boolean centered) {
 		int len = sequence.length;
 		float baseX = x;
 		if(centered) {
@@ -103,9 +123,11 @@ abstract public class Font {
 		char now = 0;
 		boolean reading = false;
 		int along = 0;
-		//13 is the new line value
-		while ((now = read(is)) != 13) {
-			if(now == ',') {
+		//lines end in \n or \r\n depending on where the file was saved, the \r is skipped
+		while ((now = read(is)) != '\n' && now != (char)-1) {
+			if(now == '\r') {
+				continue;
+			} else if(now == ',') {
 				reading = true;
 			} else if (reading) {
 				temp[along] = now;
@@ -143,7 +165,8 @@ abstract public class Font {
 	 * @param is - input stream to skip a line on
 	 */
 	private void skipLine(FileInputStream is) {
-		while (read(is) != 13);
+		char now;
+		while ((now = read(is)) != '\n' && now != (char)-1);
 	}
 	
 	private void loadData(String path) {
@@ -0,0 +1,141 @@
+package cnge.core;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * waits out the rest of each frame without burning a whole core.
+ *
+ * most of the wait is spent parked, and only the last little bit is spun,
+ * since the os can wake the thread up late but spinning is always on time.
+ * it also keeps the last few frame times around to see how steady the pacing is
+ */
+public class FramePacer {
+
+	/**
+	 * how close to the end of the frame it stops sleeping and starts spinning
+	 */
+	public static final long SPIN_NANOS = 2000000;
+
+	/**
+	 * how many frames the stats are taken over
+	 */
+	public static final int HISTORY = 128;
+
+	private long frameNanos;
+	//how long frames should actually take, the same as frameNanos unless something else sets the pace
+	private long expectedNanos;
+
+	//when the frame was supposed to start, to keep the rate steady
+	private long scheduled;
+	//when it actually started
+	private long last;
+
+	private long[] frames;
+	private int frameIndex;
+	private int frameCount;
+
+	/**
+	 * @param fps - frames per second to aim for, 0 to never wait
+	 */
+	public FramePacer(int fps) {
+		setFrameRate(fps);
+		last = scheduled = System.nanoTime();
+		frames = new long[HISTORY];
+	}
+
+	public void setFrameRate(int fps) {
+		frameNanos = fps > 0 ? 1000000000L / fps : 0;
+		expectedNanos = frameNanos;
+	}
+
+	/**
+	 * for when something else sets the pace, like the swap waiting for vsync,
+	 * and this is only there so frames can't come faster than their own frame rate.
+	 * misses are measured against this rate instead, and the wait doesn't try to keep a schedule
+	 *
+	 * @param fps - how many frames per second actually come, 0 to go back to the pacer's own rate
+	 */
+	public void setExpectedRate(int fps) {
+		expectedNanos = fps > 0 ? 1000000000L / fps : frameNanos;
+	}
+
+	/**
+	 * waits until it's time for the next frame
+	 *
+	 * @return nanoseconds since the last frame started
+	 */
+	public long waitForFrame() {
+		long now = System.nanoTime();
+		if(frameNanos > 0) {
+			long target = scheduled + frameNanos;
+			long left;
+			while((left = target - now) > SPIN_NANOS) {
+				LockSupport.parkNanos(left - SPIN_NANOS);
+				now = System.nanoTime();
+			}
+			//just spin, it's only the last couple of milliseconds
+			while(now < target) {
+				now = System.nanoTime();
+			}
+			//more than a frame behind, start over from now instead of rushing to catch up.
+			//if something else is pacing the frames they're always behind, so it's always from now
+			scheduled = now - target > frameNanos || expectedNanos != frameNanos ? now : target;
+		}
+		long delta = now - last;
+		last = now;
+
+		frames[frameIndex] = delta;
+		frameIndex = (frameIndex + 1) % HISTORY;
+		if(frameCount < HISTORY) {
+			++frameCount;
+		}
+		return delta;
+	}
+
+	/**
+	 * @return average nanoseconds a frame took over the last {@link #HISTORY} frames
+	 */
+	public double getMeanFrame() {
+		if(frameCount == 0) {
+			return 0;
+		}
+		long sum = 0;
+		for(int i = 0; i < frameCount; ++i) {
+			sum += frames[i];
+		}
+		return (double)sum / frameCount;
+	}
+
+	/**
+	 * @return standard deviation of the frame times in nanoseconds, how uneven the frames are
+	 */
+	public double getJitter() {
+		if(frameCount == 0) {
+			return 0;
+		}
+		double mean = getMeanFrame();
+		double sum = 0;
+		for(int i = 0; i < frameCount; ++i) {
+			double d = frames[i] - mean;
+			sum += d * d;
+		}
+		return Math.sqrt(sum / frameCount);
+	}
+
+	/**
+	 * @return the furthest any recent frame was from the frame time they should take, in nanoseconds
+	 */
+	public long getWorstMiss() {
+		long target = expectedNanos > 0 ? expectedNanos : (long)getMeanFrame();
+		long worst = 0;
+		for(int i = 0; i < frameCount; ++i) {
+			worst = Math.max(worst, Math.abs(frames[i] - target));
+		}
+		return worst;
+	}
+
+	public String report() {
+		return String.format("frame %.2f ms, jitter %.3f ms, worst miss %.3f ms", getMeanFrame() / 1000000, getJitter() / 1000000, getWorstMiss() / 1000000d);
+	}
+
+}
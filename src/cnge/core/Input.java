@@ -0,0 +1,17 @@
+package cnge.core;
+
+/**
+ * where the keys and buttons come from, the window or something pretending to be one
+ */
+public interface Input {
+	
+	/**
+	 * called once per update, before anything asks about keys
+	 */
+	public void update();
+	
+	public boolean keyPressed(int keyCode);
+	
+	public boolean mousePressed(int button);
+	
+}
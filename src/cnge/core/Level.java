@@ -2,20 +2,34 @@ package cnge.core;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
 import javax.imageio.ImageIO;
 
 public abstract class Level<M extends Map, B extends Block> {
 
 	private int sections;
 	
-	protected int[][][] tiles;
-	protected int[] widths;
-	protected int[] heights;
+	protected TileGrid[] tiles;
 	
 	private String[] mapImages;
 	
 	protected BlockSet<B> blockSet;
 	
+	private int unknownPixels;
+	
+	private boolean loaded;
+	private boolean compiled = true;
+	
+	private LevelFile streamFile;
+	
 	/**
 	 * constructs a new mapgroup for the scene
 	 * 
@@ -41,26 +55,69 @@ public abstract class Level<M extends Map, B extends Block> {
 	}
 	
 	/**
-	 * BOIIIIIIIIIII TODO
+	 * creates an instance of one of the map sections.
+	 * the map shares the level's tiles, and only gets its own copy of the parts of them it changes
+	 * 
+	 * @param i - which section
+	 * @param x - the x position of the map
+	 * @param y - the y position of the map
 	 */
 	public M createMaps(int i, float x, float y, Object... params) {
-		int w = widths[i];
-		int h = heights[i];
-		int[][] take = tiles[i];
-		int[][] give = new int[w][h];
-		/*
-		 * we make a clone array that we give to the map instance
-		 */
-		for(int j = 0; j < w; ++j) {
-			for(int k = 0; k < h; ++k) {
-				give[j][k] = take[j][k];
-			}
-		}
 		M create = mapCreate(i, params);
-		create.mapSetup(x, y, blockSet, give);
+		create.mapSetup(x, y, blockSet, tiles[i].copy());
+		return create;
+	}
+	
+	/**
+	 * creates an instance of one of the map sections that only keeps the part around the camera in memory,
+	 * read out of the compiled level as it goes.
+	 * nothing else of the level is loaded, so {@link #onLevelRead(LevelFile)} has to get everything the level needs
+	 * 
+	 * @param i - which section
+	 * @param x - the x position of the map
+	 * @param y - the y position of the map
+	 * @param capacity - about how many chunks of the map to keep in memory
+	 */
+	public M createStreamedMap(int i, float x, float y, int capacity, Object... params) {
+		loadStreamed();
+		M create = mapCreate(i, params);
+		create.mapSetup(x, y, blockSet, new StreamedGrid(new LevelFile.Tiles(streamFile.chunk("TILE", i)), capacity));
 		return create;
 	}
 	
+	/**
+	 * gets the level ready to be streamed, everything but the tiles is read from the compiled level.
+	 * if there isn't an up to date one, the level is loaded the normal way once to make it,
+	 * or just written out if it's already loaded, in which case it stays loaded
+	 */
+	public void loadStreamed() {
+		if(streamFile != null) {
+			return;
+		}
+		if(!compiled) {
+			throw new IllegalStateException("streaming needs a compiled level");
+		}
+		LevelFile f = LevelFile.open(getCompiledPath(), getStamp());
+		if(f == null) {
+			if(loaded) {
+				//load won't do anything again, the tiles are already here to be written
+				try {
+					bake();
+				} catch(IOException ex) {
+					System.err.println("couldn't write " + getCompiledPath() + ", " + ex.getMessage());
+				}
+			} else {
+				load();
+				unload();
+			}
+			f = LevelFile.open(getCompiledPath(), getStamp());
+		}
+		if(f == null || !onLevelRead(f)) {
+			throw new IllegalStateException("couldn't stream " + getCompiledPath());
+		}
+		streamFile = f;
+	}
+	
 	/**
 	 * use this instead of the {@link EntityGroup} one
 	 * 
@@ -73,21 +130,14 @@ public abstract class Level<M extends Map, B extends Block> {
 	 * @return returns the map, NULL if could not create
 	 */
 	public M createMap(float x, float y, Object... params) {
-		int w = widths[0];
-		int h = heights[0];
-		int[][] take = tiles[0];
-		int[][] give = new int[w][h];
-		/*
-		 * we make a clone array that we give to the map instance
-		 */
-		for(int j = 0; j < w; ++j) {
-			for(int k = 0; k < h; ++k) {
-				give[j][k] = take[j][k];
-			}
-		}
-		M create = mapCreate(0, params);
-		create.mapSetup(x, y, blockSet, give);
-		return create;
+		return createMaps(0, x, y, params);
+	}
+	
+	/**
+	 * @return the loaded tiles of a section, the level's own, not a copy
+	 */
+	public TileGrid getTiles(int i) {
+		return tiles[i];
 	}
 	
 	public BlockSet<B> getBlockSet() {
@@ -99,39 +149,208 @@ public abstract class Level<M extends Map, B extends Block> {
 	/**
 	 * when the map needs to actually be used, call this one. Loads in the map,
 	 * 
-	 * how much time will it take? Who knows
+	 * the first time it's called the compiled level next to the images is read if it's up to date,
+	 * otherwise the images are decoded and the compiled level is written for next time.
+	 * after that the level stays loaded, so calling it again on a restart does nothing
 	 */
 	public void load() {
-		tiles = new int[sections][][];
-		widths = new int[sections];
-		heights = new int[sections];
-		
-		Thread[] tList = new Thread[sections];
+		if(loaded) {
+			return;
+		}
+		if(!compiled || !readCompiled()) {
+			decode();
+			onLevelLoad();
+			if(compiled) {
+				try {
+					bake();
+				} catch(IOException ex) {
+					System.err.println("couldn't write " + getCompiledPath() + ", " + ex.getMessage());
+				}
+			}
+		}
+		loaded = true;
+	}
+	
+	/**
+	 * forgets the loaded level, the next {@link #load()} reads it in again
+	 */
+	public void unload() {
+		loaded = false;
+		tiles = null;
+		streamFile = null;
+	}
+	
+	public boolean isLoaded() {
+		return loaded;
+	}
+	
+	/**
+	 * @param c - false to always decode the images, and never read or write a compiled level
+	 */
+	public void setCompiled(boolean c) {
+		compiled = c;
+	}
+	
+	/**
+	 * @return where the compiled level goes, the first image with its extension swapped for .lvl
+	 */
+	public String getCompiledPath() {
+		String p = mapImages[0];
+		int dot = p.lastIndexOf('.');
+		return (dot > p.lastIndexOf('/') ? p.substring(0, dot) : p) + ".lvl";
+	}
+	
+	/**
+	 * writes the loaded level out compiled, so the next load doesn't need the images
+	 */
+	public void bake() throws IOException {
+		LevelFile.Writer w = new LevelFile.Writer(getStamp());
 		for(int i = 0; i < sections; ++i) {
-			(tList[i] = new Thread(new LoaderThread(i))).run();
+			w.chunk("TILE").putTiles(tiles[i]);
 		}
+		onLevelBake(w);
+		w.write(getCompiledPath());
+	}
+	
+	private boolean readCompiled() {
+		LevelFile f = LevelFile.open(getCompiledPath(), getStamp());
+		if(f == null) {
+			return false;
+		}
+		TileGrid[] t = new TileGrid[sections];
+		try {
+			for(int i = 0; i < sections; ++i) {
+				ByteBuffer c = f.chunk("TILE", i);
+				if(c == null) {
+					return false;
+				}
+				t[i] = LevelFile.getTiles(c);
+			}
+			tiles = t;
+			if(!onLevelRead(f)) {
+				onLevelLoad();
+			}
+		} catch(BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | NegativeArraySizeException ex) {
+			//a broken file is the same as no file
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * what a compiled level has to match to be used,
+	 * made from the contents of the images, the block colors and the type of level
+	 */
+	public long getStamp() {
+		long stamp = getClass().getName().hashCode();
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[1 << 16];
+		for(String path : mapImages) {
+			//read instead of mapped, a mapping would keep the image locked until it's collected
+			try(FileInputStream in = new FileInputStream(path)) {
+				int n;
+				while((n = in.read(buffer)) != -1) {
+					crc.update(buffer, 0, n);
+				}
+			} catch(IOException ex) {
+				//if the image is gone the compiled level is all there is
+				crc.update(path.getBytes());
+			}
+		}
+		stamp = stamp * 0x100000001b3L ^ crc.getValue();
+		for(int i = -1; i < blockSet.getLength(); ++i) {
+			stamp = stamp * 0x100000001b3L ^ blockSet.get(i).colorCode;
+		}
+		return stamp;
+	}
+	
+	/**
+	 * reads and classifies every section's image
+	 * 
+	 * each section is read on the fork join pool, and big sections are split up further by rows.
+	 * every pixel is looked up once in a table of block colors,
+	 * so it takes the same time no matter how many blocks are in the set
+	 */
+	private void decode() {
+		if(blockSet.getLength() > TileGrid.MAX_BLOCKS) {
+			throw new IllegalArgumentException("a level can't have more than " + TileGrid.MAX_BLOCKS + " blocks");
+		}
+		tiles = new TileGrid[sections];
 		
+		ColorTable colors = new ColorTable(blockSet);
+		
+		ArrayList<SectionLoader> loaders = new ArrayList<SectionLoader>(sections);
 		for(int i = 0; i < sections; ++i) {
-			try {
-				tList[i].join();
-			} catch (InterruptedException ex) {
-				ex.printStackTrace();
-			}
+			loaders.add(new SectionLoader(i, colors));
 		}
+		ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+			protected void compute() {
+				invokeAll(loaders);
+			}
+		});
 		
-		onLevelLoad();
+		unknownPixels = 0;
+		for(SectionLoader l : loaders) {
+			reportUnknown(l.number, l.unknown);
+		}
+	}
+	
+	/**
+	 * called when a compiled level is written, after the tiles.
+	 * put anything in that {@link #onLevelLoad()} works out, so it doesn't have to be worked out again
+	 * 
+	 * @param w - start chunks of your own on this
+	 */
+	protected void onLevelBake(LevelFile.Writer w) {
+	}
+	
+	/**
+	 * called instead of {@link #onLevelLoad()} when the level comes from a compiled level,
+	 * the tiles are already there
+	 * 
+	 * @param f - get the chunks written in {@link #onLevelBake(LevelFile.Writer)} from this
+	 * 
+	 * @return false if the file doesn't have what's needed, then onLevelLoad is called instead
+	 */
+	protected boolean onLevelRead(LevelFile f) {
+		return false;
+	}
+	
+	/**
+	 * prints the colors in a section's image that aren't any block, they're left empty
+	 */
+	private void reportUnknown(int section, ColorTable unknown) {
+		unknown.forEach((color, count) -> {
+			System.err.printf("%s: %d pixels of #%08x aren't a block%n", mapImages[section], count, color);
+			unknownPixels += count;
+		});
+	}
+	
+	/**
+	 * @return how many pixels in the last load had a color that isn't in the block set
+	 */
+	public int getUnknownPixels() {
+		return unknownPixels;
 	}
 	
 	abstract public void onLevelLoad();
 	
-	private class LoaderThread implements Runnable {
+	/**
+	 * reads one section's image and then fills in its tiles
+	 */
+	private class SectionLoader extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
 		int number;
+		ColorTable colors;
+		ColorTable unknown;
 		
-		public LoaderThread(int n) {
+		SectionLoader(int n, ColorTable c) {
 			number = n;
+			colors = c;
 		}
 		
-		public void run() {
+		protected void compute() {
 			
 			BufferedImage b = null;
 			try {
@@ -147,59 +366,68 @@ public abstract class Level<M extends Map, B extends Block> {
 			int[] data = new int[width * height];
 			b.getRGB(0, 0, width, height, data, 0, width);
 			
-			tiles[number] = new int[width][height];
-
-			//first fill out with -1 (Spooky)
-			for(int j = 0; j < width; ++j) {
-				for(int k = 0; k < height; ++k) {
-					tiles[number][j][k] = -1;
-				}
-			}
+			TileGrid grid = new TileGrid(width, height);
 			
-			int bs = blockSet.getLength();
-			Thread[] tList = new Thread[bs];
-			for(int i = 0; i < bs; ++i) {
-				(tList[i] = new Thread(new PlacerThread(i, width, height, data, tiles[number]))).run();
-			}
+			Classifier c = new Classifier(width, 0, height, data, grid.getCells(), colors);
+			c.compute();
+			unknown = c.unknown;
 			
-			for(int i = 0; i < bs; ++i) {
-				try {
-					tList[i].join();
-				} catch (InterruptedException ex) {
-					ex.printStackTrace();
-				}
-			}
-			
-			widths[number] = width;
-			heights[number] = height;
+			tiles[number] = grid;
 		}
 	}
 	
-	private class PlacerThread implements Runnable {
-		int block;
+	/**
+	 * turns a band of rows of pixels into block ids, splitting in half while there are a lot of pixels
+	 */
+	private class Classifier extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * bands smaller than this many pixels aren't worth splitting
+		 */
+		static final int PIXELS = 1 << 16;
 		
 		int width;
-		int height;
+		int from;
+		int to;
 		int[] data;
-		int[][] array;
+		short[] cells;
+		ColorTable colors;
+		ColorTable unknown;
 		
-		public PlacerThread(int b, int w, int h, int[] d, int[][] a) {
-			block = b;
-			
+		Classifier(int w, int f, int t, int[] d, short[] c, ColorTable ct) {
 			width = w;
-			height = h;
+			from = f;
+			to = t;
 			data = d;
-			array = a;
+			cells = c;
+			colors = ct;
+			unknown = new ColorTable(4);
 		}
 		
-		public void run() {
-			int color = blockSet.get(block).colorCode;
-			for(int j = 0; j < height; ++j) {
-				for(int i = 0; i < width; ++i) {
-					if(data[j * width + i] == color) {
-						array[i][j] = block;
+		protected void compute() {
+			if((to - from) * width > PIXELS && to - from > 1) {
+				int mid = (from + to) >>> 1;
+				Classifier top = new Classifier(width, from, mid, data, cells, colors);
+				Classifier bottom = new Classifier(width, mid, to, data, cells, colors);
+				invokeAll(top, bottom);
+				unknown.addAll(top.unknown);
+				unknown.addAll(bottom.unknown);
+				return;
+			}
+			int empty = blockSet.get(-1).colorCode;
+			//the image and the grid are both row by row, so it's one pass straight along both
+			for(int k = from * width, end = to * width; k < end; ++k) {
+				int color = data[k];
+				int block = colors.get(color);
+				if(block == ColorTable.MISSING) {
+					//the default block's color and see through pixels are meant to be empty
+					if(color != empty && (color >>> 24) != 0) {
+						unknown.add(color, 1);
 					}
+					block = -1;
 				}
+				cells[k] = (short)TileGrid.cell(block, 0);
 			}
 		}
 	}
@@ -0,0 +1,396 @@
+package cnge.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * a compiled level, so the images don't have to be decoded and classified every time.
+ *
+ * the file starts with a header and a directory of chunks, then the chunks one after the other.
+ * each chunk has a four letter tag, and the same tag can show up more than once, like one tile chunk per section.
+ * tile grids are written a chunk at a time so a chunk can be read on its own,
+ * and each chunk is runs of the same value, those are common in levels, and the numbers are varints.
+ * files are read through a memory mapping, so only the chunks that are asked for are ever touched
+ *
+ * <pre>
+ * int magic, int version, long stamp, int chunks
+ * (int tag, int offset, int length) * chunks
+ * chunk data
+ * </pre>
+ */
+public class LevelFile {
+
+	public static final int MAGIC = tag("CNGL");
+
+	/**
+	 * goes up whenever the layout changes, older files are then ignored
+	 */
+	public static final int VERSION = 3;
+
+	private static final int HEADER = 20;
+	private static final int ENTRY = 12;
+
+	private ByteBuffer buffer;
+	private int[] tags;
+	private int[] offsets;
+	private int[] lengths;
+
+	private LevelFile(ByteBuffer b, int[] t, int[] o, int[] l) {
+		buffer = b;
+		tags = t;
+		offsets = o;
+		lengths = l;
+	}
+
+	/**
+	 * packs four letters into an int, for chunk tags
+	 */
+	public static int tag(String s) {
+		return (s.charAt(0) << 24) | (s.charAt(1) << 16) | (s.charAt(2) << 8) | s.charAt(3);
+	}
+
+	/**
+	 * opens a compiled level
+	 *
+	 * @param path - the file
+	 * @param stamp - what the file has to have been made from, see {@link Level#getStamp()}
+	 *
+	 * @return the file, or null if it doesn't exist, is out of date, or is broken
+	 */
+	public static LevelFile open(String path, long stamp) {
+		File f = new File(path);
+		if(!f.isFile()) {
+			return null;
+		}
+		ByteBuffer b;
+		try(RandomAccessFile file = new RandomAccessFile(f, "r"); FileChannel channel = file.getChannel()) {
+			//the header is checked before mapping, an out of date file gets written over next
+			//and windows won't replace a file while it's mapped
+			if(file.length() < HEADER || file.readInt() != MAGIC || file.readInt() != VERSION || file.readLong() != stamp) {
+				return null;
+			}
+			b = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch(IOException ex) {
+			return null;
+		}
+		int n = b.getInt(16);
+		if(n < 0 || HEADER + (long)n * ENTRY > b.limit()) {
+			return null;
+		}
+		int[] t = new int[n];
+		int[] o = new int[n];
+		int[] l = new int[n];
+		for(int i = 0; i < n; ++i) {
+			int at = HEADER + i * ENTRY;
+			t[i] = b.getInt(at);
+			o[i] = b.getInt(at + 4);
+			l[i] = b.getInt(at + 8);
+			if(o[i] < 0 || l[i] < 0 || (long)o[i] + l[i] > b.limit()) {
+				return null;
+			}
+		}
+		return new LevelFile(b, t, o, l);
+	}
+
+	/**
+	 * @param tag - the chunk's tag
+	 * @param i - which one of the chunks with that tag, in the order they were written
+	 *
+	 * @return the chunk's data, or null if there aren't that many
+	 */
+	public ByteBuffer chunk(String tag, int i) {
+		int t = tag(tag);
+		for(int c = 0; c < tags.length; ++c) {
+			if(tags[c] == t && i-- == 0) {
+				ByteBuffer b = buffer.duplicate();
+				b.limit(offsets[c] + lengths[c]).position(offsets[c]);
+				return b.slice();
+			}
+		}
+		return null;
+	}
+
+	public ByteBuffer chunk(String tag) {
+		return chunk(tag, 0);
+	}
+
+	/**
+	 * reads a number written with {@link Writer#putVarint(int)}
+	 */
+	public static int getVarint(ByteBuffer b) {
+		int v = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			int by = b.get();
+			v |= (by & 0x7f) << shift;
+			if(by >= 0) {
+				//undo the zigzag
+				return (v >>> 1) ^ -(v & 1);
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	/**
+	 * reads a whole grid written with {@link Writer#putTiles(TileGrid)}
+	 */
+	public static TileGrid getTiles(ByteBuffer b) {
+		return new Tiles(b).toGrid();
+	}
+
+	/**
+	 * a tile grid in a compiled level.
+	 * the grid is split into {@link TileGrid#CHUNK_SIZE} chunks that are each compressed on their own,
+	 * with a table of where each one ends, so any chunk can be read without reading the ones before it
+	 *
+	 * <pre>
+	 * varint width, varint height
+	 * int end * chunks, row by row
+	 * (varint run, varint cell) * as many as each chunk needs
+	 * </pre>
+	 */
+	public static class Tiles {
+
+		private ByteBuffer buffer;
+		private int width;
+		private int height;
+		private int chunksAcross;
+		private int chunksDown;
+		private int table;
+		private int data;
+
+		/**
+		 * @param b - the tiles chunk from {@link LevelFile#chunk(String, int)}
+		 */
+		public Tiles(ByteBuffer b) {
+			buffer = b.duplicate();
+			width = getVarint(buffer);
+			height = getVarint(buffer);
+			chunksAcross = (width + TileGrid.MASK) >> TileGrid.SHIFT;
+			chunksDown = (height + TileGrid.MASK) >> TileGrid.SHIFT;
+			table = buffer.position();
+			data = table + chunksAcross * chunksDown * 4;
+			if(width < 0 || height < 0 || data > buffer.limit()) {
+				throw new IllegalArgumentException("broken tiles chunk");
+			}
+		}
+
+		/**
+		 * decodes one chunk, this can be called from any thread
+		 *
+		 * @param cx - chunk x
+		 * @param cy - chunk y
+		 * @param into - where the cells go, rows {@link TileGrid#CHUNK_SIZE} apart
+		 */
+		public void readChunk(int cx, int cy, short[] into) {
+			int i = cy * chunksAcross + cx;
+			int start = i == 0 ? 0 : buffer.getInt(table + (i - 1) * 4);
+			int end = buffer.getInt(table + i * 4);
+			ByteBuffer b = buffer.duplicate();
+			b.limit(data + end).position(data + start);
+
+			int cw = Math.min(TileGrid.CHUNK_SIZE, width - (cx << TileGrid.SHIFT));
+			int ch = Math.min(TileGrid.CHUNK_SIZE, height - (cy << TileGrid.SHIFT));
+			int x = 0;
+			int y = 0;
+			while(y < ch) {
+				int run = getVarint(b);
+				short v = (short)getVarint(b);
+				if(run <= 0) {
+					throw new IllegalArgumentException("bad run length " + run);
+				}
+				for(; run > 0; --run) {
+					into[(y << TileGrid.SHIFT) | x] = v;
+					if(++x == cw) {
+						x = 0;
+						++y;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return every chunk decoded into one grid
+		 */
+		public TileGrid toGrid() {
+			TileGrid g = new TileGrid(width, height);
+			short[] cells = g.getCells();
+			short[] chunk = new short[TileGrid.CHUNK_SIZE * TileGrid.CHUNK_SIZE];
+			for(int cy = 0; cy < chunksDown; ++cy) {
+				for(int cx = 0; cx < chunksAcross; ++cx) {
+					readChunk(cx, cy, chunk);
+					int x0 = cx << TileGrid.SHIFT;
+					int y0 = cy << TileGrid.SHIFT;
+					int cw = Math.min(TileGrid.CHUNK_SIZE, width - x0);
+					int ch = Math.min(TileGrid.CHUNK_SIZE, height - y0);
+					for(int j = 0; j < ch; ++j) {
+						System.arraycopy(chunk, j << TileGrid.SHIFT, cells, (y0 + j) * width + x0, cw);
+					}
+				}
+			}
+			return g;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getHeight() {
+			return height;
+		}
+
+		public int getChunksAcross() {
+			return chunksAcross;
+		}
+
+		public int getChunksDown() {
+			return chunksDown;
+		}
+
+	}
+
+	/**
+	 * builds up a compiled level and writes it out
+	 */
+	public static class Writer {
+
+		private long stamp;
+		private ArrayList<Integer> tags = new ArrayList<Integer>();
+		private ArrayList<ByteArrayOutputStream> chunks = new ArrayList<ByteArrayOutputStream>();
+		private ByteArrayOutputStream current;
+
+		/**
+		 * @param s - the stamp {@link LevelFile#open(String, long)} checks against
+		 */
+		public Writer(long s) {
+			stamp = s;
+		}
+
+		/**
+		 * starts a new chunk, everything put after this goes in it
+		 */
+		public Writer chunk(String tag) {
+			tags.add(tag(tag));
+			chunks.add(current = new ByteArrayOutputStream());
+			return this;
+		}
+
+		/**
+		 * writes a number in as few bytes as it needs, small negative numbers included
+		 */
+		public Writer putVarint(int v) {
+			int z = (v << 1) ^ (v >> 31);
+			while((z & ~0x7f) != 0) {
+				current.write((z & 0x7f) | 0x80);
+				z >>>= 7;
+			}
+			current.write(z);
+			return this;
+		}
+
+		/**
+		 * writes a number in exactly four bytes
+		 */
+		public Writer putInt(int v) {
+			current.write(v >>> 24);
+			current.write(v >>> 16);
+			current.write(v >>> 8);
+			current.write(v);
+			return this;
+		}
+
+		/**
+		 * writes a grid a chunk at a time, each chunk row by row as runs of the same cell,
+		 * see {@link Tiles} for how it's laid out
+		 */
+		public Writer putTiles(TileGrid g) {
+			short[] cells = g.getCells();
+			int w = g.getWidth();
+			int h = g.getHeight();
+			int across = (w + TileGrid.MASK) >> TileGrid.SHIFT;
+			int down = (h + TileGrid.MASK) >> TileGrid.SHIFT;
+			putVarint(w);
+			putVarint(h);
+
+			//the chunks go to the side first, their ends have to come before them
+			ByteArrayOutputStream table = current;
+			ByteArrayOutputStream data = current = new ByteArrayOutputStream();
+			int[] ends = new int[across * down];
+			for(int cy = 0; cy < down; ++cy) {
+				for(int cx = 0; cx < across; ++cx) {
+					int x0 = cx << TileGrid.SHIFT;
+					int y0 = cy << TileGrid.SHIFT;
+					int x1 = Math.min(x0 + TileGrid.CHUNK_SIZE, w);
+					int y1 = Math.min(y0 + TileGrid.CHUNK_SIZE, h);
+					int run = 0;
+					short last = 0;
+					for(int y = y0; y < y1; ++y) {
+						for(int x = x0; x < x1; ++x) {
+							short v = cells[y * w + x];
+							if(run > 0 && v != last) {
+								putVarint(run);
+								putVarint(last & 0xffff);
+								run = 0;
+							}
+							last = v;
+							++run;
+						}
+					}
+					if(run > 0) {
+						putVarint(run);
+						putVarint(last & 0xffff);
+					}
+					ends[cy * across + cx] = data.size();
+				}
+			}
+			current = table;
+			for(int e : ends) {
+				putInt(e);
+			}
+			current.write(data.toByteArray(), 0, data.size());
+			return this;
+		}
+
+		/**
+		 * writes the file, first to the side and then moved over the old one,
+		 * so a crash halfway through never leaves a broken file behind
+		 */
+		public void write(String path) throws IOException {
+			int n = chunks.size();
+			File f = new File(path);
+			File temp = new File(path + ".tmp");
+			try(DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(stamp);
+				out.writeInt(n);
+				int offset = HEADER + n * ENTRY;
+				for(int i = 0; i < n; ++i) {
+					out.writeInt(tags.get(i));
+					out.writeInt(offset);
+					out.writeInt(chunks.get(i).size());
+					offset += chunks.get(i).size();
+				}
+				for(ByteArrayOutputStream c : chunks) {
+					c.writeTo(out);
+				}
+			}
+			if(!temp.renameTo(f)) {
+				//windows won't rename over a file that exists
+				f.delete();
+				if(!temp.renameTo(f)) {
+					throw new IOException("couldn't move " + temp + " to " + f);
+				}
+			}
+		}
+
+	}
+
+}
@@ -2,21 +2,62 @@ package cnge.core;
 
 import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
 import static org.lwjgl.opengl.GL11.GL_DEPTH_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_SCISSOR_TEST;
 import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11.glDisable;
+import static org.lwjgl.opengl.GL11.glEnable;
+import static org.lwjgl.opengl.GL11.glScissor;
 
+import cnge.graphics.BatchMesh;
 import cnge.graphics.Camera;
 import cnge.graphics.FBO;
+import cnge.graphics.RenderTargetPool;
+import cnge.graphics.Shader;
+import cnge.graphics.Shape;
 import cnge.graphics.Transform;
+import cnge.graphics.texture.IntTexture;
 import cnge.graphics.texture.Texture;
+import cnge.graphics.texture.TexturePreset;
+import cnge.graphics.texture.TileTexture;
 
 abstract public class Map<B extends Block> extends Entity {
 	
 	public static final int DEFAULT_BLOCK = -1;
 	public static final int OUTSIDE_MAP = -2;
 	
+	/** every frame the visible blocks are drawn into the map buffer, then the buffer is drawn */
+	public static final int RENDER_BUFFERED = 0;
+	
+	/** the blocks are kept on the gpu in chunks, only the chunks on screen are drawn */
+	public static final int RENDER_CHUNKED = 1;
+	
+	/**
+	 * the map buffer wraps around and keeps what was drawn last frame,
+	 * only the columns and rows that scrolled onto the screen get drawn.
+	 * override {@link #mapRender(Transform, Texture, float, float)} to use this
+	 */
+	public static final int RENDER_RING = 2;
+	
+	/**
+	 * the blocks are uploaded into an integer texture and the whole map is one quad,
+	 * the shader looks up the block under every pixel.
+	 * needs {@link #setGrid(TileTexture, int, int)} and {@link #gridCell(int, int, int)}
+	 */
+	public static final int RENDER_GRID = 3;
+	
+	/** in grid mode, outside the map the edge blocks keep going, like {@link #edgeAccess(CellGrid, int, int)} */
+	public static final int GRID_CLAMP = 0;
+	/** in grid mode, outside the map the map repeats, like {@link #repeatAllAccess(CellGrid, int, int)} */
+	public static final int GRID_REPEAT = 1;
+	/** in grid mode, outside the map there is nothing, like {@link #boundedAccess(CellGrid, int, int)} */
+	public static final int GRID_OUTSIDE = 2;
+	
+	/** how many blocks across and down a chunk is */
+	public static final int CHUNK_SIZE = TileGrid.CHUNK_SIZE;
+	
 	protected BlockSet<B> blockSet;
-	private int[][] tiles;
+	private CellGrid tiles;
 	private int width;
 	private int height;
 	
@@ -33,25 +74,99 @@ abstract public class Map<B extends Block> extends Entity {
 	protected int scale;
 	
 	private FBO mapBuffer;
+	private boolean bufferRing;
+	
+	/**
+	 * where the map buffer goes in the world, reused every frame
+	 */
+	private Transform bufferTransform = new Transform();
+	
+	private int renderMode;
+	
+	private Chunk[] chunks;
+	private int chunksAcross;
+	private int chunksDown;
+	
+	/*
+	 * what the ring buffer currently holds
+	 */
+	private boolean ringValid;
+	private int ringLayer;
+	private int ringLeft;
+	private int ringUp;
+	
+	private int tilesDrawn;
+	
+	/*
+	 * streaming stuff
+	 */
+	private StreamedGrid streamed;
+	private StreamedGrid.Arrival arrival = (cx, cy) -> {
+		//map chunks and grid chunks are the same size
+		if(chunks != null) {
+			chunks[cy * chunksAcross + cx].dirty = true;
+		}
+		ringValid = false;
+	};
+	
+	/*
+	 * grid texture stuff
+	 */
+	private static MapShader mapShader;
+	private IntTexture grid;
+	private int gridLayer;
+	private TileTexture gridTiles;
+	private int gridHorz;
+	private int gridVert;
 	
 	public Map(Access a, int s) {
 		access = a;
 		scale = s;
-		mapBuffer = new FBO();
-		getOnScreenDims();
+		if(!Base.headless) {
+			mapBuffer = new FBO();
+			getOnScreenDims();
+		}
 	}
 	
-	public void mapSetup(float x, float y, BlockSet<B> bs, int[][] t) {
+	public void mapSetup(float x, float y, BlockSet<B> bs, CellGrid t) {
 		setup(x, y);
 		tiles = t;
-		width = t.length;
-		height = t[0].length;
+		width = t.getWidth();
+		height = t.getHeight();
 		blockSet = bs;
 		transform.setSize(width * scale, height * scale);
+		if(t instanceof StreamedGrid) {
+			streamed = (StreamedGrid)t;
+			setRenderMode(renderMode);
+		}
+		if(renderMode == RENDER_CHUNKED) {
+			createChunks();
+		}
 	}
 	
 	/**
-	 * called once per block
+	 * changes how the map gets drawn
+	 * 
+	 * @param m - {@link #RENDER_BUFFERED} | {@link #RENDER_CHUNKED} | {@link #RENDER_RING} | {@link #RENDER_GRID}
+	 */
+	public void setRenderMode(int m) {
+		//the grid texture would need the whole map, the ring buffer only ever needs what's on screen
+		if(m == RENDER_GRID && streamed != null) {
+			m = RENDER_RING;
+		}
+		renderMode = m;
+		if(renderMode == RENDER_CHUNKED && tiles != null && chunks == null) {
+			createChunks();
+		}
+		if(renderMode == RENDER_RING) {
+			//the buffer has to repeat for the wrap around to work
+			getOnScreenDims();
+		}
+	}
+	
+	/**
+	 * called once per block, in between the batch's begin and end,
+	 * so add the block to the batch instead of drawing it yourself
 	 */
 	abstract public void blockRender(int l, int x, int y, float left, float right, float up, float down);
 	
@@ -62,15 +177,87 @@ abstract public class Map<B extends Block> extends Entity {
 	 */
 	abstract public void mapRender(Transform t, Texture tx);
 	
+	/**
+	 * gives the map what it needs to draw in {@link #RENDER_GRID} mode.
+	 * every block has to come out of the same tile sheet
+	 * 
+	 * @param t - the tile sheet
+	 * @param h - how the map is accessed horizontally outside of it, {@link #GRID_CLAMP} | {@link #GRID_REPEAT} | {@link #GRID_OUTSIDE}
+	 * @param v - how the map is accessed vertically outside of it
+	 */
+	public void setGrid(TileTexture t, int h, int v) {
+		gridTiles = t;
+		gridHorz = h;
+		gridVert = v;
+	}
+	
+	/**
+	 * in {@link #RENDER_GRID} mode this is called once per block when the grid is built,
+	 * and again whenever the block is marked dirty
+	 * 
+	 * @param l - the layer being drawn
+	 * @param x - map coordinate
+	 * @param y - map coordinate
+	 * 
+	 * @return 0 if nothing is drawn here, or the frame in the tile sheet from {@link #gridFrame(int, int)}
+	 */
+	public int gridCell(int l, int x, int y) {
+		return 0;
+	}
+	
+	/**
+	 * packs a frame of the tile sheet into a grid texture value
+	 * 
+	 * @param fx - frame x, less than 255
+	 * @param fy - frame y, less than 256
+	 * 
+	 * @return the value for {@link #gridCell(int, int, int)} to return
+	 */
+	public static int gridFrame(int fx, int fy) {
+		return (fx + 1) | (fy << 8);
+	}
+	
+	/**
+	 * renders the map texture to the main buffer when the map buffer is a ring buffer.
+	 * the texture has to be sampled starting at the offset and wrapping around
+	 * 
+	 * @param t - where in the world the texture goes
+	 * @param tx - the texture from the map buffer
+	 * @param ox - the horizontal offset into the texture of the left side, from 0 to 1
+	 * @param oy - the vertical offset into the texture of the top side, from 0 to 1, from the top
+	 */
+	public void mapRender(Transform t, Texture tx, float ox, float oy) {
+		mapRender(t, tx);
+	}
+	
+	/**
+	 * decides what's at a spot, even outside of the map
+	 */
 	public interface Access {
-		int access( int[][] a, int x, int y);
+		/**
+		 * @return the cell there, see {@link CellGrid#getCell(int, int)}, or {@link #OUTSIDE_MAP}
+		 */
+		int access(CellGrid a, int x, int y);
 	}
 	
-	public int access(int[][] a, int x, int y) {
+	public int access(CellGrid a, int x, int y) {
 		return access.access(a, x, y);
 	}
 	
+	/**
+	 * @return the block id at a spot, or {@link #OUTSIDE_MAP}
+	 */
 	public int mapAccess(int x, int y) {
+		int c = access.access(tiles, x, y);
+		return c == OUTSIDE_MAP ? OUTSIDE_MAP : TileGrid.block(c);
+	}
+	
+	/**
+	 * gets the block and its flags in one go
+	 * 
+	 * @return the whole cell at a spot, or {@link #OUTSIDE_MAP}
+	 */
+	public int mapCell(int x, int y) {
 		return access.access(tiles, x, y);
 	}
 	
@@ -82,7 +269,21 @@ abstract public class Map<B extends Block> extends Entity {
 		Transform t = camera.getTransform();
 		acr = (int)Math.ceil(t.getWidth() / scale) + 1;
 		dow = (int)Math.ceil(t.getHeight() / scale) + 1;
-		mapBuffer.replaceTexture(new Texture(acr * scale, dow * scale));
+		if(mapBuffer == null) {
+			return;
+		}
+		boolean ring = renderMode == RENDER_RING;
+		Texture old = mapBuffer.getTexture();
+		//nothing to do if it's already the right size and wrap
+		if(old.getWidth() != acr * scale || old.getHeight() != dow * scale || ring != bufferRing) {
+			TexturePreset tp = new TexturePreset();
+			if(ring) {
+				tp.clampHorz(false).clampVert(false);
+			}
+			RenderTargetPool.release(mapBuffer.replaceTexture(RenderTargetPool.acquire(acr * scale, dow * scale, tp)));
+			bufferRing = ring;
+		}
+		ringValid = false;
 	}
 	
 	/**
@@ -123,12 +324,45 @@ abstract public class Map<B extends Block> extends Entity {
 		return right;
 	}
 	
-	public int[][] getTies() {
+	public CellGrid getTiles() {
 		return tiles;
 	}
 	
 	public int get(int x, int y) {
-		return tiles[x][y];
+		return tiles.get(x, y);
+	}
+	
+	public int getFlags(int x, int y) {
+		return tiles.getFlags(x, y);
+	}
+	
+	/**
+	 * changes a block in the map, the chunk it's in will be rebuilt next time it renders
+	 * 
+	 * @param x - map coordinate
+	 * @param y - map coordinate
+	 * @param b - the new block id
+	 */
+	public void set(int x, int y, int b) {
+		tiles.set(x, y, b);
+		markDirty(x, y);
+	}
+	
+	/**
+	 * tells the map that the block at this position looks different now,
+	 * even if the id didn't change
+	 * 
+	 * @param x - map coordinate
+	 * @param y - map coordinate
+	 */
+	public void markDirty(int x, int y) {
+		if(chunks != null && x >= 0 && y >= 0 && x < width && y < height) {
+			chunks[(y / CHUNK_SIZE) * chunksAcross + (x / CHUNK_SIZE)].dirty = true;
+		}
+		if(grid != null && x >= 0 && y >= 0 && x < width && y < height) {
+			grid.set(x, y, gridCell(gridLayer, x, y));
+		}
+		ringValid = false;
 	}
 	
 	public int getWidth() {
@@ -162,6 +396,11 @@ abstract public class Map<B extends Block> extends Entity {
 		right = left + acr;
 		down  = up + dow;
 		
+		if(streamed != null) {
+			streamed.poll(arrival);
+			streamed.focus(left, up, right, down);
+		}
+		
 		return onScreen;
 	}
 	
@@ -197,15 +436,15 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * @throws AccessException
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public int boundedAccess(int[][] a, int x, int y) {
-		int width_m = a.length - 1;
-		int height_m = a[0].length - 1;
+	public int boundedAccess(CellGrid a, int x, int y) {
+		int width_m = a.getWidth() - 1;
+		int height_m = a.getHeight() - 1;
 		if(x < 0) {
 			return OUTSIDE_MAP;
 		} else if (x > width_m) {
@@ -216,7 +455,7 @@ abstract public class Map<B extends Block> extends Entity {
 		} else if (y > height_m) {
 			return OUTSIDE_MAP;
 		}
-		return a[x][y];
+		return a.getCell(x, y);
 	}
 	
 	/**
@@ -225,14 +464,14 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public static int edgeAccess(int[][] a, int x, int y) {
-		int width_m = a.length - 1;
-		int height_m = a[0].length - 1;
+	public static int edgeAccess(CellGrid a, int x, int y) {
+		int width_m = a.getWidth() - 1;
+		int height_m = a.getHeight() - 1;
 		if(x < 0) {
 			x = 0;
 		} else if (x > width_m) {
@@ -243,7 +482,7 @@ abstract public class Map<B extends Block> extends Entity {
 		} else if (y > height_m) {
 			y = height_m;
 		}
-		return a[x][y];
+		return a.getCell(x, y);
 	}
 	
 	/**
@@ -252,15 +491,15 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * @throws AccessException
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public static int horzEdgeAccess(int[][] a, int x, int y) {
-		int width_m = a.length - 1;
-		int height_m = a[0].length - 1;
+	public static int horzEdgeAccess(CellGrid a, int x, int y) {
+		int width_m = a.getWidth() - 1;
+		int height_m = a.getHeight() - 1;
 		if(x < 0) {
 			x = 0;
 		} else if (x > width_m) {
@@ -271,7 +510,7 @@ abstract public class Map<B extends Block> extends Entity {
 		} else if (y > height_m) {
 			return OUTSIDE_MAP;
 		}
-		return a[x][y];
+		return a.getCell(x, y);
 	}
 	
 	/**
@@ -280,15 +519,15 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * @throws AccessException
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public static int vertEdgeAccess(int[][] a, int x, int y) {
-		int width_m = a.length - 1;
-		int height_m = a[0].length - 1;
+	public static int vertEdgeAccess(CellGrid a, int x, int y) {
+		int width_m = a.getWidth() - 1;
+		int height_m = a.getHeight() - 1;
 		if(x < 0) {
 			return OUTSIDE_MAP;
 		} else if (x > width_m) {
@@ -299,7 +538,7 @@ abstract public class Map<B extends Block> extends Entity {
 		} else if (y > height_m) {
 			y = height_m;
 		}
-		return a[x][y];
+		return a.getCell(x, y);
 	}
 	
 	/**
@@ -308,22 +547,23 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * @throws AccessException
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public static int repeatHorzAccess(int[][] a, int x, int y) {
-		int width = a.length;
-		int height_m = a[0].length - 1;
-		x %= width;
+	public static int repeatHorzAccess(CellGrid a, int x, int y) {
+		int width = a.getWidth();
+		int height_m = a.getHeight() - 1;
+		//floorMod so it keeps repeating to the left of 0 too
+		x = Math.floorMod(x, width);
 		if(y < 0) {
 			return OUTSIDE_MAP;
 		} else if (y > height_m) {
 			return OUTSIDE_MAP;
 		}
-		return a[x][y];
+		return a.getCell(x, y);
 	}
 	
 	/**
@@ -332,20 +572,30 @@ abstract public class Map<B extends Block> extends Entity {
 	 * @param x - map coordinate
 	 * @param y - map coordinate
 	 * 
-	 * @return the block there
+	 * @return the cell there
 	 * 
 	 * @see atX()
 	 * @see atY()
 	 */
-	public static int repeatAllAccess(int[][] a, int x, int y) {
-		int width = a.length;
-		int height = a[0].length;
-		x %= width;
-		y %= height;
-		return a[x][y];
+	public static int repeatAllAccess(CellGrid a, int x, int y) {
+		int width = a.getWidth();
+		int height = a.getHeight();
+		x = Math.floorMod(x, width);
+		y = Math.floorMod(y, height);
+		return a.getCell(x, y);
 	}
 	
 	public void render(int layer) {
+		if(renderMode == RENDER_CHUNKED) {
+			renderChunks(layer);
+			return;
+		} else if(renderMode == RENDER_RING) {
+			renderRing(layer);
+			return;
+		} else if(renderMode == RENDER_GRID) {
+			renderGrid(layer);
+			return;
+		}
 		
 		mapBuffer.enable();
 		camera.setDims(acr * scale, dow * scale);
@@ -354,16 +604,345 @@ abstract public class Map<B extends Block> extends Entity {
 		glClearColor(0, 0, 0, 0);
 		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 		
+		//the whole buffer goes out in as few draws as the blocks' textures allow
+		batch.begin(camera.getProjection());
 		for(int x = 0; x < acr; ++x) {
 			for(int y = 0; y < dow; ++y) {
 				blockRender(layer, x + left, y + up, x * scale, (x + 1) * scale, y * scale, (y + 1) * scale);
 			}
 		}
+		batch.end();
 		
 		Base.screenBuffer.enable();
 		camera.defaultDims();
         
-		mapRender(new Transform(left * scale, up * scale, acr * scale, dow * scale), mapBuffer.getTexture());
+		bufferTransform.set(left * scale, up * scale, acr * scale, dow * scale);
+		mapRender(bufferTransform, mapBuffer.getTexture());
+	}
+	
+	/*
+	 * grid texture stuff
+	 */
+	
+	private void buildGrid(int layer) {
+		short[] cells = new short[width * height];
+		for(int y = 0; y < height; ++y) {
+			for(int x = 0; x < width; ++x) {
+				cells[y * width + x] = (short)gridCell(layer, x, y);
+			}
+		}
+		if(grid != null) {
+			grid.destroy();
+		}
+		grid = new IntTexture(width, height, cells);
+		gridLayer = layer;
+	}
+	
+	/**
+	 * draws the part of the map on screen as one quad, no matter how many blocks are showing
+	 * 
+	 * @param layer - the layer to draw
+	 */
+	private void renderGrid(int layer) {
+		if(mapShader == null) {
+			mapShader = new MapShader();
+		}
+		if(grid == null || layer != gridLayer) {
+			buildGrid(layer);
+		}
+		
+		float bw = scale * transform.wScale;
+		float bh = scale * transform.hScale;
+		
+		gridTiles.bind();
+		grid.bind(MapShader.GRID_UNIT);
+		
+		mapShader.enable();
+		mapShader.setModel(camera.getModelMatrixDims(transform.x + left * bw, transform.y + up * bh, acr * bw, dow * bh, mvp));
+		mapShader.setUniforms(left, up, acr, dow, gridTiles.getX(), gridTiles.getY(), gridTiles.getZ(0), gridTiles.getW(0), width, height, gridHorz, gridVert);
+		
+		Shape.RECT.render();
+		
+		Shader.disable();
+		
+		IntTexture.unbind(MapShader.GRID_UNIT);
+		Texture.unbind();
+	}
+	
+	/*
+	 * ring buffer stuff
+	 */
+	
+	/**
+	 * the map buffer is treated like it wraps around, block (x, y) always goes in slot (x mod acr, y mod dow).
+	 * so when the camera moves, everything that was already on screen is still in the buffer,
+	 * and only the columns and rows that are new have to be drawn
+	 * 
+	 * @param layer - the layer to draw
+	 */
+	private void renderRing(int layer) {
+		mapBuffer.enable();
+		camera.setDims(acr * scale, dow * scale);
+		
+		tilesDrawn = 0;
+		
+		batch.begin(camera.getProjection());
+		
+		int dx = left - ringLeft;
+		int dy = up - ringUp;
+		
+		if(!ringValid || layer != ringLayer || Math.abs(dx) >= acr || Math.abs(dy) >= dow) {
+			glClearColor(0, 0, 0, 0);
+			glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+			for(int x = left; x < right; ++x) {
+				for(int y = up; y < down; ++y) {
+					ringBlock(layer, x, y);
+				}
+			}
+		} else {
+			//the columns that just came on screen
+			int c0 = dx > 0 ? ringLeft + acr : left;
+			int c1 = dx > 0 ? right : ringLeft;
+			for(int x = c0; x < c1; ++x) {
+				ringClear(Math.floorMod(x, acr) * scale, 0, scale, dow * scale);
+				for(int y = up; y < down; ++y) {
+					ringBlock(layer, x, y);
+				}
+			}
+			//the rows that just came on screen
+			int r0 = dy > 0 ? ringUp + dow : up;
+			int r1 = dy > 0 ? down : ringUp;
+			for(int y = r0; y < r1; ++y) {
+				ringClear(0, Math.floorMod(y, dow) * scale, acr * scale, scale);
+				for(int x = left; x < right; ++x) {
+					ringBlock(layer, x, y);
+				}
+			}
+		}
+		
+		batch.end();
+		
+		ringValid = true;
+		ringLayer = layer;
+		ringLeft = left;
+		ringUp = up;
+		
+		Base.screenBuffer.enable();
+		camera.defaultDims();
+		
+		float ox = (float)Math.floorMod(left, acr) / acr;
+		float oy = (float)Math.floorMod(up, dow) / dow;
+		
+		bufferTransform.set(left * scale, up * scale, acr * scale, dow * scale);
+		mapRender(bufferTransform, mapBuffer.getTexture(), ox, oy);
+	}
+	
+	private void ringBlock(int layer, int x, int y) {
+		float sx = Math.floorMod(x, acr) * scale;
+		float sy = Math.floorMod(y, dow) * scale;
+		blockRender(layer, x, y, sx, sx + scale, sy, sy + scale);
+		++tilesDrawn;
+	}
+	
+	/**
+	 * clears part of the ring buffer, in buffer pixels from the top left
+	 */
+	private void ringClear(int x, int y, int w, int h) {
+		//anything already in the batch might be in the way, so get it out first
+		batch.flush();
+		glEnable(GL_SCISSOR_TEST);
+		glScissor(x, dow * scale - (y + h), w, h);
+		glClearColor(0, 0, 0, 0);
+		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
+		glDisable(GL_SCISSOR_TEST);
+	}
+	
+	/**
+	 * @return how many blocks were drawn into the ring buffer last frame
+	 */
+	public int getTilesDrawn() {
+		return tilesDrawn;
+	}
+	
+	/*
+	 * chunk stuff
+	 */
+	
+	private void createChunks() {
+		chunksAcross = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunksDown = (height + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		chunks = new Chunk[chunksAcross * chunksDown];
+		for(int j = 0; j < chunksDown; ++j) {
+			for(int i = 0; i < chunksAcross; ++i) {
+				chunks[j * chunksAcross + i] = new Chunk(this, i, j);
+			}
+		}
+	}
+	
+	/**
+	 * draws the chunks that overlap the camera straight into the screen buffer.
+	 * anything on screen that's outside of the map still goes through the batch every frame,
+	 * so the access mode still works
+	 * 
+	 * @param layer - the layer to draw
+	 */
+	private void renderChunks(int layer) {
+		camera.getModelViewProjectionMatrix(camera.getModelMatrixDims(transform.x, transform.y, transform.wScale, transform.hScale, mvp), mvp);
+		
+		int cl = Math.max(Math.floorDiv(left, CHUNK_SIZE), 0);
+		int cr = Math.min(Math.floorDiv(right - 1, CHUNK_SIZE), chunksAcross - 1);
+		int cu = Math.max(Math.floorDiv(up, CHUNK_SIZE), 0);
+		int cd = Math.min(Math.floorDiv(down - 1, CHUNK_SIZE), chunksDown - 1);
+		
+		for(int j = cu; j <= cd; ++j) {
+			for(int i = cl; i <= cr; ++i) {
+				chunks[j * chunksAcross + i].getMesh(layer).render(mvp);
+			}
+		}
+		
+		if(left < 0 || up < 0 || right > width || down > height) {
+			batch.begin(mvp);
+			for(int y = up; y < down; ++y) {
+				if(y < 0 || y >= height) {
+					for(int x = left; x < right; ++x) {
+						blockRender(layer, x, y, x * scale, (x + 1) * scale, y * scale, (y + 1) * scale);
+					}
+				} else {
+					for(int x = left; x < Math.min(right, 0); ++x) {
+						blockRender(layer, x, y, x * scale, (x + 1) * scale, y * scale, (y + 1) * scale);
+					}
+					for(int x = Math.max(left, width); x < right; ++x) {
+						blockRender(layer, x, y, x * scale, (x + 1) * scale, y * scale, (y + 1) * scale);
+					}
+				}
+			}
+			batch.end();
+		}
+	}
+	
+	/**
+	 * @return how many bytes of vertex data a chunk holds on the gpu, 0 if it doesn't exist
+	 */
+	public int getChunkBytes(int cx, int cy) {
+		return chunks == null ? 0 : chunks[cy * chunksAcross + cx].getBytes();
+	}
+	
+	/**
+	 * @return how long the chunk took to build the last time it was built
+	 */
+	public long getChunkBuildNanos(int cx, int cy) {
+		return chunks == null ? 0 : chunks[cy * chunksAcross + cx].buildNanos;
+	}
+	
+	/**
+	 * frees everything this map has on the gpu
+	 */
+	public void destroy() {
+		if(chunks != null) {
+			for(Chunk c : chunks) {
+				c.destroy();
+			}
+			chunks = null;
+		}
+		if(grid != null) {
+			grid.destroy();
+			grid = null;
+		}
+		if(mapBuffer != null) {
+			RenderTargetPool.release(mapBuffer.getTexture());
+			mapBuffer.destroy();
+		}
+		if(streamed != null) {
+			streamed.destroy();
+		}
+	}
+	
+	/**
+	 * a square of blocks that is kept on the gpu, one mesh for each layer
+	 */
+	private static class Chunk {
+		Map<?> map;
+		int x;
+		int y;
+		
+		BatchMesh[] meshes;
+		boolean[] built;
+		boolean dirty;
+		
+		int builds;
+		long buildNanos;
+		
+		Chunk(Map<?> m, int cx, int cy) {
+			map = m;
+			x = cx;
+			y = cy;
+			meshes = new BatchMesh[0];
+			built = new boolean[0];
+		}
+		
+		BatchMesh getMesh(int layer) {
+			if(dirty) {
+				for(int i = 0; i < built.length; ++i) {
+					built[i] = false;
+				}
+				dirty = false;
+			}
+			if(layer >= meshes.length) {
+				BatchMesh[] nm = new BatchMesh[layer + 1];
+				boolean[] nb = new boolean[layer + 1];
+				System.arraycopy(meshes, 0, nm, 0, meshes.length);
+				System.arraycopy(built, 0, nb, 0, built.length);
+				meshes = nm;
+				built = nb;
+			}
+			if(!built[layer]) {
+				build(layer);
+			}
+			return meshes[layer];
+		}
+		
+		void build(int layer) {
+			long start = System.nanoTime();
+			
+			if(meshes[layer] == null) {
+				meshes[layer] = batch.createMesh();
+			}
+			int x0 = x * CHUNK_SIZE;
+			int y0 = y * CHUNK_SIZE;
+			int x1 = Math.min(x0 + CHUNK_SIZE, map.width);
+			int y1 = Math.min(y0 + CHUNK_SIZE, map.height);
+			int scale = map.scale;
+			
+			batch.record(meshes[layer]);
+			for(int i = x0; i < x1; ++i) {
+				for(int j = y0; j < y1; ++j) {
+					map.blockRender(layer, i, j, i * scale, (i + 1) * scale, j * scale, (j + 1) * scale);
+				}
+			}
+			batch.endRecord();
+			
+			built[layer] = true;
+			++builds;
+			buildNanos = System.nanoTime() - start;
+		}
+		
+		int getBytes() {
+			int bytes = 0;
+			for(BatchMesh m : meshes) {
+				if(m != null) {
+					bytes += m.getBytes();
+				}
+			}
+			return bytes;
+		}
+		
+		void destroy() {
+			for(BatchMesh m : meshes) {
+				if(m != null) {
+					m.destroy();
+				}
+			}
+		}
 	}
 	
 	/**
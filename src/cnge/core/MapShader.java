@@ -0,0 +1,66 @@
+package cnge.core;
+
+import static org.lwjgl.opengl.GL20.glGetUniformLocation;
+import static org.lwjgl.opengl.GL20.glUniform1i;
+import static org.lwjgl.opengl.GL20.glUniform2i;
+import static org.lwjgl.opengl.GL20.glUniform4f;
+
+import cnge.graphics.Shader;
+
+/**
+ * draws a whole map in one quad, looking up each block in a grid texture
+ */
+public class MapShader extends Shader {
+	
+	/**
+	 * the texture unit the grid texture goes in, the tile sheet stays in 0
+	 */
+	public static final int GRID_UNIT = 1;
+	
+	private int areaLoc;
+	private int frameLoc;
+	private int mapSizeLoc;
+	private int wrapLoc;
+	private int colorLoc;
+	
+	public MapShader() {
+		super("res/cnge/shaders/map/map.vs", "res/cnge/shaders/map/map.fs");
+		
+		areaLoc = glGetUniformLocation(program, "area");
+		frameLoc = glGetUniformLocation(program, "frame");
+		mapSizeLoc = glGetUniformLocation(program, "mapSize");
+		wrapLoc = glGetUniformLocation(program, "wrap");
+		colorLoc = glGetUniformLocation(program, "inColor");
+		
+		//the samplers never move so set them once
+		enable();
+		glUniform1i(glGetUniformLocation(program, "sampler"), 0);
+		glUniform1i(glGetUniformLocation(program, "grid"), GRID_UNIT);
+		disable();
+	}
+	
+	/**
+	 * sends uniforms to the map shader after being enabled
+	 * 
+	 * @param l - left of the drawn area in blocks
+	 * @param u - top of the drawn area in blocks
+	 * @param a - blocks across
+	 * @param d - blocks down
+	 * @param fx - frame width in the tile sheet
+	 * @param fy - frame height in the tile sheet
+	 * @param ox - where the tile sheet starts horizontally
+	 * @param oy - where the tile sheet starts vertically
+	 * @param mw - map width in blocks
+	 * @param mh - map height in blocks
+	 * @param wh - horizontal access mode
+	 * @param wv - vertical access mode
+	 */
+	public void setUniforms(float l, float u, float a, float d, float fx, float fy, float ox, float oy, int mw, int mh, int wh, int wv) {
+		glUniform4f(areaLoc, l, u, a, d);
+		glUniform4f(frameLoc, fx, fy, ox, oy);
+		glUniform2i(mapSizeLoc, mw, mh);
+		glUniform2i(wrapLoc, wh, wv);
+		glUniform4f(colorLoc, 1, 1, 1, 1);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,359 @@
+package cnge.core;
+
+import static org.lwjgl.opengl.GL15.GL_QUERY_RESULT;
+import static org.lwjgl.opengl.GL15.GL_QUERY_RESULT_AVAILABLE;
+import static org.lwjgl.opengl.GL15.glBeginQuery;
+import static org.lwjgl.opengl.GL15.glDeleteQueries;
+import static org.lwjgl.opengl.GL15.glEndQuery;
+import static org.lwjgl.opengl.GL15.glGenQueries;
+import static org.lwjgl.opengl.GL15.glGetQueryObjecti;
+import static org.lwjgl.opengl.GL33.GL_TIME_ELAPSED;
+import static org.lwjgl.opengl.GL33.glGetQueryObjecti64;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+
+import cnge.graphics.SpriteBatch;
+import cnge.graphics.texture.Texture;
+import cnge.graphics.texture.TexturePreset;
+
+/**
+ * times every part of every frame, so a hitch can be pinned on something.
+ *
+ * the base times its own phases, and scenes can add their own scopes with {@link #scope(String)}.
+ * cpu times are nanoTime, gpu times come from timer queries that are read two frames later
+ * so waiting on them never stalls anything.
+ * the last {@link #FRAMES} frames are kept in a ring, and nothing is allocated while profiling
+ */
+public class Profiler {
+
+	/**
+	 * how many frames are kept
+	 */
+	public static final int FRAMES = 256;
+
+	public static final int MAX_SCOPES = 32;
+
+	/*
+	 * the base's phases
+	 */
+	public static final int WAIT = 0;
+	public static final int EVENTS = 1;
+	public static final int UPDATE = 2;
+	public static final int RENDER = 3;
+	public static final int BLIT = 4;
+	public static final int SWAP = 5;
+
+	private static String[] names = new String[MAX_SCOPES];
+	private static int scopes;
+
+	static {
+		scope("wait");
+		scope("events");
+		scope("update");
+		scope("render");
+		scope("blit");
+		scope("swap");
+	}
+
+	private static boolean enabled = true;
+
+	/*
+	 * one row of MAX_SCOPES per frame
+	 */
+	private static long[] cpu = new long[FRAMES * MAX_SCOPES];
+	private static long[] gpu = new long[FRAMES * MAX_SCOPES];
+	private static long[] starts = new long[MAX_SCOPES];
+	private static long frame = -1;
+	private static int row;
+
+	/*
+	 * two sets of queries, one being written this frame while the other one's results come in
+	 */
+	private static int[] queries;
+	private static boolean[] issued = new boolean[2 * MAX_SCOPES];
+	private static long[] issuedFrame = new long[2];
+	private static int gpuActive = -1;
+	private static int gpuDropped;
+
+	private static long[] sorted = new long[FRAMES];
+
+	private static Texture white;
+	private static Matrix4f graphMatrix = new Matrix4f();
+
+	/**
+	 * gets the id for a named scope, making one if it doesn't exist yet.
+	 * call this once and keep the id, not every frame
+	 *
+	 * @param name - what it shows up as
+	 *
+	 * @return the scope id for begin and end
+	 */
+	public static int scope(String name) {
+		for(int i = 0; i < scopes; ++i) {
+			if(names[i].equals(name)) {
+				return i;
+			}
+		}
+		if(scopes == MAX_SCOPES) {
+			throw new IllegalStateException("no more than " + MAX_SCOPES + " profiler scopes");
+		}
+		names[scopes] = name;
+		return scopes++;
+	}
+
+	public static void setEnabled(boolean e) {
+		enabled = e;
+	}
+
+	/**
+	 * moves on to the next row, the base calls this at the start of every frame
+	 */
+	public static void beginFrame() {
+		if(!enabled) {
+			return;
+		}
+		++frame;
+		row = (int)(frame % FRAMES) * MAX_SCOPES;
+		Arrays.fill(cpu, row, row + MAX_SCOPES, 0);
+		Arrays.fill(gpu, row, row + MAX_SCOPES, 0);
+		if(queries != null) {
+			collect((int)(frame & 1));
+		}
+	}
+
+	/**
+	 * starts timing a scope, a scope can be timed more than once a frame and the times add up
+	 */
+	public static void begin(int s) {
+		starts[s] = System.nanoTime();
+	}
+
+	public static void end(int s) {
+		if(enabled && frame > -1) {
+			cpu[row + s] += System.nanoTime() - starts[s];
+		}
+	}
+
+	/**
+	 * starts timing a scope on the gpu.
+	 * gpu scopes can't overlap, so while one is going any other gpuBegin is ignored
+	 */
+	public static void gpuBegin(int s) {
+		if(!enabled || Base.headless || gpuActive != -1 || frame < 0) {
+			return;
+		}
+		if(queries == null) {
+			queries = new int[2 * MAX_SCOPES];
+			glGenQueries(queries);
+		}
+		int q = (int)(frame & 1) * MAX_SCOPES + s;
+		glBeginQuery(GL_TIME_ELAPSED, queries[q]);
+		issued[q] = true;
+		issuedFrame[(int)(frame & 1)] = frame;
+		gpuActive = s;
+	}
+
+	public static void gpuEnd(int s) {
+		if(gpuActive != s) {
+			return;
+		}
+		glEndQuery(GL_TIME_ELAPSED);
+		gpuActive = -1;
+	}
+
+	/**
+	 * reads back the queries from two frames ago, before they're used again
+	 */
+	private static void collect(int set) {
+		long from = issuedFrame[set];
+		//if it's fallen out of the ring there's nowhere to put it
+		boolean keep = frame - from < FRAMES;
+		int fromRow = (int)(from % FRAMES) * MAX_SCOPES;
+		for(int s = 0; s < scopes; ++s) {
+			int q = set * MAX_SCOPES + s;
+			if(!issued[q]) {
+				continue;
+			}
+			issued[q] = false;
+			if(glGetQueryObjecti(queries[q], GL_QUERY_RESULT_AVAILABLE) == 0) {
+				//still not done, it gets thrown out rather than waited on
+				++gpuDropped;
+			} else if(keep) {
+				gpu[fromRow + s] = glGetQueryObjecti64(queries[q], GL_QUERY_RESULT);
+			}
+		}
+	}
+
+	/**
+	 * @param s - the scope
+	 * @param ago - 1 for the last finished frame, up to FRAMES - 1
+	 *
+	 * @return nanoseconds the scope took on the cpu that frame
+	 */
+	public static long getCpu(int s, int ago) {
+		return cpu[(int)((frame - ago) % FRAMES) * MAX_SCOPES + s];
+	}
+
+	/**
+	 * @param ago - at least 2, newer frames don't have gpu times yet
+	 */
+	public static long getGpu(int s, int ago) {
+		return gpu[(int)((frame - ago) % FRAMES) * MAX_SCOPES + s];
+	}
+
+	/**
+	 * @param s - the scope
+	 * @param p - percentile, 0 to 100
+	 * @param onGpu - gpu times instead of cpu
+	 *
+	 * @return the time in nanoseconds that p percent of the kept frames were at or under
+	 */
+	public static long percentile(int s, double p, boolean onGpu) {
+		//the current frame isn't finished, and gpu times lag two behind
+		int first = onGpu ? 2 : 1;
+		int n = (int)Math.min(frame + 1 - first, FRAMES - first);
+		if(n <= 0) {
+			return 0;
+		}
+		long[] from = onGpu ? gpu : cpu;
+		for(int i = 0; i < n; ++i) {
+			sorted[i] = from[(int)((frame - first - i) % FRAMES) * MAX_SCOPES + s];
+		}
+		Arrays.sort(sorted, 0, n);
+		int at = (int)Math.ceil(p / 100 * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, at))];
+	}
+
+	/**
+	 * @return the 50th, 95th and 99th percentile of every scope in milliseconds
+	 */
+	public static String summary() {
+		StringBuilder b = new StringBuilder();
+		for(int s = 0; s < scopes; ++s) {
+			b.append(String.format("%-10s cpu %7.3f %7.3f %7.3f", names[s], percentile(s, 50, false) / 1e6, percentile(s, 95, false) / 1e6, percentile(s, 99, false) / 1e6));
+			if(queries != null) {
+				b.append(String.format("   gpu %7.3f %7.3f %7.3f", percentile(s, 50, true) / 1e6, percentile(s, 95, true) / 1e6, percentile(s, 99, true) / 1e6));
+			}
+			b.append('\n');
+		}
+		return b.toString();
+	}
+
+	/**
+	 * writes every kept frame out, oldest first, one column per scope in nanoseconds
+	 *
+	 * @param path - the csv file
+	 */
+	public static void dump(String path) throws IOException {
+		try(PrintWriter w = new PrintWriter(path)) {
+			w.print("frame");
+			for(int s = 0; s < scopes; ++s) {
+				w.print("," + names[s]);
+			}
+			for(int s = 0; s < scopes; ++s) {
+				w.print(",gpu " + names[s]);
+			}
+			w.println();
+			int n = (int)Math.min(frame, FRAMES - 1);
+			for(int i = n; i > 0; --i) {
+				int r = (int)((frame - i) % FRAMES) * MAX_SCOPES;
+				w.print(frame - i);
+				for(int s = 0; s < scopes; ++s) {
+					w.print("," + cpu[r + s]);
+				}
+				for(int s = 0; s < scopes; ++s) {
+					w.print("," + gpu[r + s]);
+				}
+				w.println();
+			}
+		}
+	}
+
+	/**
+	 * draws the kept frames as stacked bars in the bottom left of the window, one color per phase.
+	 * waiting isn't drawn, so the bars are how busy each frame was.
+	 * scopes made with {@link #scope(String)} happen inside the phases, so they aren't stacked,
+	 * each one is a thin mark at the height of its own time instead
+	 *
+	 * @param batch - something to draw with
+	 * @param w - window width
+	 * @param h - window height
+	 * @param budget - nanoseconds a frame should take, a line is drawn there
+	 */
+	public static void renderGraph(SpriteBatch batch, int w, int h, long budget) {
+		if(white == null) {
+			ByteBuffer pixel = BufferUtils.createByteBuffer(4);
+			pixel.put((byte)-1).put((byte)-1).put((byte)-1).put((byte)-1).flip();
+			white = new Texture(1, 1, pixel, new TexturePreset().nearest(true));
+		}
+		//4 pixels a millisecond
+		float scale = 4 / 1e6f;
+		float barWidth = 2;
+
+		batch.begin(graphMatrix.setOrtho(0, w, h, 0, 1, -1));
+		int n = (int)Math.min(frame, FRAMES - 1);
+		for(int i = 1; i <= n; ++i) {
+			float right = FRAMES * barWidth - (i - 1) * barWidth;
+			float bottom = h;
+			int r = (int)((frame - i) % FRAMES) * MAX_SCOPES;
+			for(int s = EVENTS; s <= SWAP; ++s) {
+				float top = bottom - cpu[r + s] * scale;
+				float hue = hue(s);
+				batch.draw(white, right - barWidth, right, top, bottom, 1, 1, 0, 0, channel(hue, 0), channel(hue, 2f / 3), channel(hue, 1f / 3), 0.8f);
+				bottom = top;
+			}
+			for(int s = SWAP + 1; s < scopes; ++s) {
+				float top = h - cpu[r + s] * scale;
+				float hue = hue(s);
+				batch.draw(white, right - barWidth, right, top - 1, top, 1, 1, 0, 0, channel(hue, 0), channel(hue, 2f / 3), channel(hue, 1f / 3), 1);
+			}
+		}
+		float line = h - budget * scale;
+		batch.draw(white, 0, FRAMES * barWidth, line - 1, line, 1, 1, 0, 0, 1, 1, 1, 1);
+		batch.end();
+	}
+
+	/**
+	 * spreads the hues around so neighbouring scopes don't look the same
+	 */
+	private static float hue(int s) {
+		return s * 0.618f % 1;
+	}
+
+	private static float channel(float hue, float shift) {
+		return 0.5f + 0.5f * (float)Math.cos(2 * Math.PI * (hue + shift));
+	}
+
+	/**
+	 * @return how many gpu times were thrown out because they weren't ready in time
+	 */
+	public static int getGpuDropped() {
+		return gpuDropped;
+	}
+
+	public static String getName(int s) {
+		return names[s];
+	}
+
+	public static int getScopeCount() {
+		return scopes;
+	}
+
+	public static void destroy() {
+		if(queries != null) {
+			glDeleteQueries(queries);
+			queries = null;
+		}
+		if(white != null) {
+			white.destroy();
+			white = null;
+		}
+	}
+
+}
@@ -11,6 +11,10 @@ public abstract class Scene<S extends Scene<S>> {
 	protected static Base base;
 	
 	protected static Window window;
+	/**
+	 * read keys from this instead of the window, so the scene can run without one
+	 */
+	protected static Input input;
 	
 	protected static Camera camera;
 	protected static Transform cameraTransform;
@@ -41,6 +45,10 @@ public abstract class Scene<S extends Scene<S>> {
 		window = w;
 	}
 	
+	public static void giveInput(Input i) {
+		input = i;
+	}
+	
 	public static void giveDims(int w, int h) {
 		screenWidth = w;
 		screenHeight = h;
@@ -64,11 +72,13 @@ public abstract class Scene<S extends Scene<S>> {
 	}
 	
 	public void eUpdate(Entity e) {
+		e.tick();
 		e.update();
 	}
 	
 	public void eUpdate_S(Entity e) {
 		if(e != null) {
+			e.tick();
 			e.update();
 		}
 	}
@@ -77,6 +87,7 @@ public abstract class Scene<S extends Scene<S>> {
 		if(e != null) {
 			e.onScreenUpdate();
 			if(e.onScreen) {
+				e.tick();
 				e.update();
 			}
 		} 
@@ -85,6 +96,7 @@ public abstract class Scene<S extends Scene<S>> {
 	public void eUpdate_O(Entity e) {
 		e.onScreenUpdate();
 		if(e.onScreen) {
+			e.tick();
 			e.update();
 		}
 	}
@@ -94,7 +106,7 @@ public abstract class Scene<S extends Scene<S>> {
 	 */
 	
 	public void eRender(Entity e) {
-		e.render();
+		e.interpolatedRender();
 	}
 	
 	/**
@@ -105,7 +117,7 @@ public abstract class Scene<S extends Scene<S>> {
 	 */
 	public void eRender_O(Entity e) {
 		if(e.onScreen) {
-			e.render();
+			e.interpolatedRender();
 		}
 	}
 	
@@ -114,7 +126,7 @@ public abstract class Scene<S extends Scene<S>> {
 	 */
 	public void eRender_S(Entity e) {
 		if(e != null) {
-			e.render();
+			e.interpolatedRender();
 		}
 	}
 	
@@ -125,7 +137,7 @@ public abstract class Scene<S extends Scene<S>> {
 	 */
 	public void eRender_OS(Entity e) {
 		if(e != null && e.onScreen) {
-			e.render();
+			e.interpolatedRender();
 		}
 	}
 	
@@ -0,0 +1,125 @@
+package cnge.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * input that plays back a script instead of reading a keyboard, for running the game with no window.
+ *
+ * the script is a list of when keys go down and up, counted in updates,
+ * so the same script always presses the same keys on the same update
+ */
+public class ScriptedInput implements Input {
+	
+	private static class Event {
+		long tick;
+		int key;
+		boolean down;
+		boolean mouse;
+	}
+	
+	private ArrayList<Event> events;
+	private int next;
+	private long tick;
+	
+	/*
+	 * indexed by key code, glfw's go up to 348
+	 */
+	private boolean[] keys;
+	private boolean[] buttons;
+	
+	public ScriptedInput() {
+		events = new ArrayList<Event>();
+		keys = new boolean[512];
+		buttons = new boolean[16];
+		tick = -1;
+	}
+	
+	/**
+	 * holds a key down for a while
+	 * 
+	 * @param k - the glfw key code
+	 * @param from - the update it goes down on
+	 * @param to - the update it comes back up on
+	 * 
+	 * @return this script
+	 */
+	public ScriptedInput hold(int k, long from, long to) {
+		add(k, from, true, false);
+		add(k, to, false, false);
+		return this;
+	}
+	
+	/**
+	 * taps a key for one update
+	 */
+	public ScriptedInput tap(int k, long at) {
+		return hold(k, at, at + 1);
+	}
+	
+	/**
+	 * holds a mouse button down for a while
+	 */
+	public ScriptedInput holdMouse(int b, long from, long to) {
+		add(b, from, true, true);
+		add(b, to, false, true);
+		return this;
+	}
+	
+	private void add(int k, long t, boolean d, boolean m) {
+		if(k < 0 || k >= (m ? buttons : keys).length) {
+			throw new IllegalArgumentException("no key or button " + k);
+		}
+		Event e = new Event();
+		e.tick = t;
+		e.key = k;
+		e.down = d;
+		e.mouse = m;
+		//keep it sorted, later events at the same tick go after earlier ones
+		int i = events.size();
+		while(i > 0 && events.get(i - 1).tick > t) {
+			--i;
+		}
+		events.add(i, e);
+		if(i < next) {
+			++next;
+		}
+	}
+	
+	/**
+	 * moves on to the next update, applying everything that happens on it
+	 */
+	public void update() {
+		++tick;
+		while(next < events.size() && events.get(next).tick <= tick) {
+			Event e = events.get(next++);
+			(e.mouse ? buttons : keys)[e.key] = e.down;
+		}
+	}
+	
+	/**
+	 * starts the script over from the beginning
+	 */
+	public void rewind() {
+		next = 0;
+		tick = -1;
+		Arrays.fill(keys, false);
+		Arrays.fill(buttons, false);
+	}
+	
+	public boolean keyPressed(int keyCode) {
+		return keyCode > -1 && keyCode < keys.length && keys[keyCode];
+	}
+	
+	public boolean mousePressed(int button) {
+		return button > -1 && button < buttons.length && buttons[button];
+	}
+	
+	/**
+	 * @return how many updates the script has gone through
+	 */
+	public long getTick() {
+		return tick;
+	}
+	
+}
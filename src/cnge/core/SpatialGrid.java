@@ -0,0 +1,430 @@
+package cnge.core;
+
+import java.util.Arrays;
+
+import cnge.graphics.Transform;
+
+/**
+ * finds the entities near a spot without checking every entity.
+ *
+ * the world is cut into square cells, and every entity is listed in each cell its transform touches.
+ * a query only looks in the cells it covers, so it costs how many things are around there,
+ * not how many things there are in total.
+ * the cells are hashed, so the world doesn't need edges, a cell is only made when something goes in it,
+ * and it's let go of again when the last thing leaves, so the table only ever holds the cells in use.
+ * once the arrays are big enough nothing is allocated, not by moving, and not by queries
+ */
+public class SpatialGrid {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private float cellSize;
+
+	/*
+	 * the cells, a hash table from cell position to the first node in it
+	 */
+	private long[] keys;
+	private int[] heads;
+	private int mask;
+	private int cellCount;
+
+	/*
+	 * the nodes, one for every cell an entity is in.
+	 * they're in a list for their cell, going both ways, and a list for their entity
+	 */
+	private int[] nodeHandle;
+	private int[] nodeCell;
+	private int[] nodeNext;
+	private int[] nodePrev;
+	private int[] nodeSibling;
+	private int freeNode;
+	private int nodeCount;
+
+	/*
+	 * the entities, by handle
+	 */
+	private Entity[] entities;
+	private float[] bounds;
+	private int[] cells;
+	private int[] firstNode;
+	private int[] seen;
+	private int freeHandle;
+	private int handleCount;
+	private int size;
+
+	private int stamp;
+
+	/**
+	 * @param c - how big a cell is in world units, about the size of the things going in works best
+	 */
+	public SpatialGrid(float c) {
+		cellSize = c;
+		keys = new long[64];
+		heads = new int[64];
+		mask = 63;
+		Arrays.fill(keys, EMPTY);
+
+		nodeHandle = new int[64];
+		nodeCell = new int[64];
+		nodeNext = new int[64];
+		nodePrev = new int[64];
+		nodeSibling = new int[64];
+		freeNode = -1;
+
+		entities = new Entity[16];
+		bounds = new float[16 * 4];
+		cells = new int[16 * 4];
+		firstNode = new int[16];
+		seen = new int[16];
+		freeHandle = -1;
+	}
+
+	/**
+	 * puts an entity in the grid where its transform is
+	 *
+	 * @param e - the entity
+	 *
+	 * @return its handle, keep this for {@link #move(int)} and {@link #remove(int)}
+	 */
+	public int add(Entity e) {
+		int h;
+		if(freeHandle != -1) {
+			h = freeHandle;
+			freeHandle = firstNode[h];
+		} else {
+			if(handleCount == entities.length) {
+				growHandles();
+			}
+			h = handleCount++;
+		}
+		entities[h] = e;
+		seen[h] = stamp;
+		readBounds(h);
+		insert(h);
+		++size;
+		return h;
+	}
+
+	/**
+	 * updates where an entity is after its transform changed.
+	 * if it's still in the same cells, it's only the bounds that change
+	 */
+	public void move(int h) {
+		int c = h * 4;
+		int x0 = cells[c];
+		int y0 = cells[c + 1];
+		int x1 = cells[c + 2];
+		int y1 = cells[c + 3];
+		readBounds(h);
+		if(cells[c] != x0 || cells[c + 1] != y0 || cells[c + 2] != x1 || cells[c + 3] != y1) {
+			unlink(h);
+			insert(h);
+		}
+	}
+
+	/**
+	 * takes an entity out, its handle can be given to something else after this
+	 */
+	public void remove(int h) {
+		unlink(h);
+		entities[h] = null;
+		firstNode[h] = freeHandle;
+		freeHandle = h;
+		--size;
+	}
+
+	/**
+	 * takes everything out, the cells and arrays stay around for next time
+	 */
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		cellCount = 0;
+		Arrays.fill(entities, 0, handleCount, null);
+		handleCount = 0;
+		freeHandle = -1;
+		nodeCount = 0;
+		freeNode = -1;
+		size = 0;
+	}
+
+	public Entity get(int h) {
+		return entities[h];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * finds every entity whose transform overlaps a box
+	 *
+	 * @param x - left side of the box
+	 * @param y - top side of the box
+	 * @param w - width of the box
+	 * @param h - height of the box
+	 * @param out - where the entities go, if there are more than fit the rest are left out
+	 *
+	 * @return how many were put in out
+	 */
+	public int queryBox(float x, float y, float w, float h, Entity[] out) {
+		return query(x, y, x + w, y + h, x, y, -1, out);
+	}
+
+	/**
+	 * finds every entity whose transform has a point in it
+	 */
+	public int queryPoint(float x, float y, Entity[] out) {
+		return query(x, y, x, y, x, y, -1, out);
+	}
+
+	/**
+	 * finds every entity whose transform comes within a distance of a point
+	 *
+	 * @param r - the distance
+	 */
+	public int queryRadius(float x, float y, float r, Entity[] out) {
+		return query(x - r, y - r, x + r, y + r, x, y, r * r, out);
+	}
+
+	/**
+	 * @param r2 - squared radius around (px, py), or -1 to only check the box
+	 */
+	private int query(float left, float up, float right, float down, float px, float py, float r2, Entity[] out) {
+		++stamp;
+		int found = 0;
+		int x0 = cell(left);
+		int y0 = cell(up);
+		int x1 = cell(right);
+		int y1 = cell(down);
+		for(int cy = y0; cy <= y1; ++cy) {
+			for(int cx = x0; cx <= x1; ++cx) {
+				int slot = find(cx, cy);
+				if(slot == -1) {
+					continue;
+				}
+				for(int n = heads[slot]; n != -1; n = nodeNext[n]) {
+					int h = nodeHandle[n];
+					//something in more than one cell only gets looked at once
+					if(seen[h] == stamp) {
+						continue;
+					}
+					seen[h] = stamp;
+					int b = h * 4;
+					float bl = bounds[b];
+					float bu = bounds[b + 1];
+					float br = bounds[b + 2];
+					float bd = bounds[b + 3];
+					if(bl > right || br < left || bu > down || bd < up) {
+						continue;
+					}
+					if(r2 >= 0) {
+						//closest point of the box to the center
+						float dx = px - Math.max(bl, Math.min(px, br));
+						float dy = py - Math.max(bu, Math.min(py, bd));
+						if(dx * dx + dy * dy > r2) {
+							continue;
+						}
+					}
+					if(found < out.length) {
+						out[found++] = entities[h];
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	private int cell(float v) {
+		return (int)Math.floor(v / cellSize);
+	}
+
+	private void readBounds(int h) {
+		Transform t = entities[h].getTransform();
+		int b = h * 4;
+		bounds[b] = t.x;
+		bounds[b + 1] = t.y;
+		bounds[b + 2] = t.x + t.getWidth();
+		bounds[b + 3] = t.y + t.getHeight();
+		cells[b] = cell(bounds[b]);
+		cells[b + 1] = cell(bounds[b + 1]);
+		cells[b + 2] = cell(bounds[b + 2]);
+		cells[b + 3] = cell(bounds[b + 3]);
+	}
+
+	/**
+	 * puts an entity in every cell its bounds cover
+	 */
+	private void insert(int h) {
+		int c = h * 4;
+		firstNode[h] = -1;
+		for(int cy = cells[c + 1]; cy <= cells[c + 3]; ++cy) {
+			for(int cx = cells[c]; cx <= cells[c + 2]; ++cx) {
+				int slot = findOrMake(cx, cy);
+				int n = newNode();
+				nodeHandle[n] = h;
+				nodeCell[n] = slot;
+				nodePrev[n] = -1;
+				nodeNext[n] = heads[slot];
+				if(heads[slot] != -1) {
+					nodePrev[heads[slot]] = n;
+				}
+				heads[slot] = n;
+				nodeSibling[n] = firstNode[h];
+				firstNode[h] = n;
+			}
+		}
+	}
+
+	/**
+	 * takes an entity out of every cell it's in
+	 */
+	private void unlink(int h) {
+		int n = firstNode[h];
+		while(n != -1) {
+			int next = nodeSibling[n];
+			if(nodePrev[n] != -1) {
+				nodeNext[nodePrev[n]] = nodeNext[n];
+			} else if((heads[nodeCell[n]] = nodeNext[n]) == -1) {
+				//that was the last thing in the cell
+				removeSlot(nodeCell[n]);
+			}
+			if(nodeNext[n] != -1) {
+				nodePrev[nodeNext[n]] = nodePrev[n];
+			}
+			nodeNext[n] = freeNode;
+			freeNode = n;
+			n = next;
+		}
+		firstNode[h] = -1;
+	}
+
+	private int newNode() {
+		if(freeNode != -1) {
+			int n = freeNode;
+			freeNode = nodeNext[n];
+			return n;
+		}
+		if(nodeCount == nodeHandle.length) {
+			int l = nodeCount * 2;
+			nodeHandle = Arrays.copyOf(nodeHandle, l);
+			nodeCell = Arrays.copyOf(nodeCell, l);
+			nodeNext = Arrays.copyOf(nodeNext, l);
+			nodePrev = Arrays.copyOf(nodePrev, l);
+			nodeSibling = Arrays.copyOf(nodeSibling, l);
+		}
+		return nodeCount++;
+	}
+
+	private void growHandles() {
+		int l = entities.length * 2;
+		entities = Arrays.copyOf(entities, l);
+		bounds = Arrays.copyOf(bounds, l * 4);
+		cells = Arrays.copyOf(cells, l * 4);
+		firstNode = Arrays.copyOf(firstNode, l);
+		seen = Arrays.copyOf(seen, l);
+	}
+
+	/*
+	 * cell hash table stuff
+	 */
+
+	private static long key(int cx, int cy) {
+		return ((long)cx << 32) | (cy & 0xffffffffL);
+	}
+
+	private int hash(long k) {
+		long h = k * 0x9e3779b97f4a7c15L;
+		return (int)(h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * @return the slot of a cell, or -1 if nothing is in it
+	 */
+	private int find(int cx, int cy) {
+		long k = key(cx, cy);
+		for(int i = hash(k); ; i = (i + 1) & mask) {
+			if(keys[i] == k) {
+				return i;
+			}
+			if(keys[i] == EMPTY) {
+				return -1;
+			}
+		}
+	}
+
+	private int findOrMake(int cx, int cy) {
+		long k = key(cx, cy);
+		int i = hash(k);
+		while(keys[i] != EMPTY) {
+			if(keys[i] == k) {
+				return i;
+			}
+			i = (i + 1) & mask;
+		}
+		if((cellCount + 1) * 2 > keys.length) {
+			growCells();
+			return findOrMake(cx, cy);
+		}
+		keys[i] = k;
+		heads[i] = -1;
+		++cellCount;
+		return i;
+	}
+
+	/**
+	 * empties a slot, and moves the cells after it back to fill the gap,
+	 * so every cell can still be found from where it hashes to without leaving markers behind.
+	 * the nodes of a cell that moves are told where it went
+	 */
+	private void removeSlot(int i) {
+		for(int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+			int home = hash(keys[j]);
+			//it can move back if the gap is between where it hashes to and where it is
+			if(((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				heads[i] = heads[j];
+				for(int n = heads[i]; n != -1; n = nodeNext[n]) {
+					nodeCell[n] = i;
+				}
+				i = j;
+			}
+		}
+		keys[i] = EMPTY;
+		--cellCount;
+	}
+
+	/**
+	 * doubles the cell table, the nodes have to be told where their cells moved to
+	 */
+	private void growCells() {
+		long[] oldKeys = keys;
+		int[] oldHeads = heads;
+		keys = new long[oldKeys.length * 2];
+		heads = new int[oldKeys.length * 2];
+		mask = keys.length - 1;
+		Arrays.fill(keys, EMPTY);
+		for(int o = 0; o < oldKeys.length; ++o) {
+			long k = oldKeys[o];
+			if(k == EMPTY) {
+				continue;
+			}
+			int i = hash(k);
+			while(keys[i] != EMPTY) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = k;
+			heads[i] = oldHeads[o];
+			for(int n = heads[i]; n != -1; n = nodeNext[n]) {
+				nodeCell[n] = i;
+			}
+		}
+	}
+
+	/**
+	 * @return how many cells have something in them
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+}
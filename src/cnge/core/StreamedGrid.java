@@ -0,0 +1,302 @@
+package cnge.core;
+
+import static cnge.core.TileGrid.CHUNK_SIZE;
+import static cnge.core.TileGrid.MASK;
+import static cnge.core.TileGrid.SHIFT;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * a tile grid that only keeps the chunks around the camera in memory, read out of a compiled level as they're needed.
+ *
+ * every frame the map tells it what's on screen with {@link #focus(int, int, int, int)},
+ * and the chunks near that are read on a background thread before they show up.
+ * once more than the capacity are loaded, the ones that haven't been used in the longest are thrown out,
+ * except for anything near the screen and anything that's been changed, those stay.
+ * if a chunk that isn't loaded yet is needed anyway it's read right then, which is slower but never wrong.
+ * all of this besides the reading is on the main thread only
+ */
+public class StreamedGrid implements CellGrid {
+
+	/**
+	 * how many chunks past the edge of the screen get loaded ahead of time
+	 */
+	public static final int MARGIN = 1;
+
+	private static final byte REQUESTED = 1;
+	private static final byte CHANGED = 2;
+
+	/*
+	 * one thread reads for every streamed grid
+	 */
+	private static ExecutorService reader = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "level streamer");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private LevelFile.Tiles source;
+	private int capacity;
+
+	private int width;
+	private int height;
+
+	private int chunksAcross;
+	private int chunksDown;
+
+	/*
+	 * one of each of these per chunk, the chunks themselves are only there while loaded
+	 */
+	private short[][] chunks;
+	private int[] used;
+	private byte[] state;
+
+	/*
+	 * which chunks are loaded, in no order
+	 */
+	private int[] loaded;
+	private int loadedCount;
+
+	private ConcurrentLinkedQueue<Loaded> arrived = new ConcurrentLinkedQueue<Loaded>();
+	private volatile boolean destroyed;
+
+	private int clock;
+
+	/*
+	 * what was kept last focus, in chunks
+	 */
+	private int keepLeft;
+	private int keepUp;
+	private int keepRight;
+	private int keepDown;
+
+	private int misses;
+	private int reads;
+	private int evictions;
+
+	private static class Loaded {
+		int index;
+		short[] cells;
+	}
+
+	/**
+	 * @param t - the tiles in a compiled level
+	 * @param c - about how many chunks to keep loaded, more are kept if that many are near the screen
+	 */
+	public StreamedGrid(LevelFile.Tiles t, int c) {
+		source = t;
+		capacity = c;
+		width = t.getWidth();
+		height = t.getHeight();
+		chunksAcross = t.getChunksAcross();
+		chunksDown = t.getChunksDown();
+		int n = chunksAcross * chunksDown;
+		chunks = new short[n][];
+		used = new int[n];
+		state = new byte[n];
+		loaded = new int[Math.max(c, 16)];
+	}
+
+	public int getCell(int x, int y) {
+		int i = (y >> SHIFT) * chunksAcross + (x >> SHIFT);
+		short[] c = chunks[i];
+		if(c == null) {
+			c = miss(i);
+		}
+		used[i] = clock;
+		return c[((y & MASK) << SHIFT) | (x & MASK)] & 0xffff;
+	}
+
+	/**
+	 * changes a cell, the chunk it's in won't be thrown out after this
+	 */
+	public void setCell(int x, int y, int v) {
+		int i = (y >> SHIFT) * chunksAcross + (x >> SHIFT);
+		short[] c = chunks[i];
+		if(c == null) {
+			c = miss(i);
+		}
+		used[i] = clock;
+		state[i] |= CHANGED;
+		c[((y & MASK) << SHIFT) | (x & MASK)] = (short)v;
+	}
+
+	/**
+	 * reads a chunk that was needed before it got loaded
+	 */
+	private short[] miss(int i) {
+		++misses;
+		short[] c = new short[CHUNK_SIZE * CHUNK_SIZE];
+		source.readChunk(i % chunksAcross, i / chunksAcross, c);
+		install(i, c);
+		return c;
+	}
+
+	private void install(int i, short[] c) {
+		chunks[i] = c;
+		used[i] = clock;
+		state[i] &= ~REQUESTED;
+		if(loadedCount == loaded.length) {
+			int[] nl = new int[loaded.length * 2];
+			System.arraycopy(loaded, 0, nl, 0, loadedCount);
+			loaded = nl;
+		}
+		loaded[loadedCount++] = i;
+		++reads;
+	}
+
+	/**
+	 * tells the grid what's on screen, so the chunks around it get loaded and the ones far away can go.
+	 * the map calls this every frame
+	 *
+	 * @param left - leftmost block on screen
+	 * @param up - topmost block on screen
+	 * @param right - one past the rightmost block
+	 * @param down - one past the bottommost block
+	 */
+	public void focus(int left, int up, int right, int down) {
+		++clock;
+		keepLeft = Math.max((left >> SHIFT) - MARGIN, 0);
+		keepUp = Math.max((up >> SHIFT) - MARGIN, 0);
+		keepRight = Math.min(((right - 1) >> SHIFT) + MARGIN, chunksAcross - 1);
+		keepDown = Math.min(((down - 1) >> SHIFT) + MARGIN, chunksDown - 1);
+
+		for(int cy = keepUp; cy <= keepDown; ++cy) {
+			for(int cx = keepLeft; cx <= keepRight; ++cx) {
+				int i = cy * chunksAcross + cx;
+				used[i] = clock;
+				if(chunks[i] == null && (state[i] & REQUESTED) == 0) {
+					state[i] |= REQUESTED;
+					request(i);
+				}
+			}
+		}
+
+		evict();
+	}
+
+	private void request(int i) {
+		reader.execute(() -> {
+			if(destroyed) {
+				return;
+			}
+			Loaded l = new Loaded();
+			l.index = i;
+			l.cells = new short[CHUNK_SIZE * CHUNK_SIZE];
+			source.readChunk(i % chunksAcross, i / chunksAcross, l.cells);
+			arrived.add(l);
+		});
+	}
+
+	/**
+	 * throws out the least recently used chunks until it's down to capacity,
+	 * or there's nothing left it's allowed to throw out
+	 */
+	private void evict() {
+		while(loadedCount > capacity) {
+			int worst = -1;
+			for(int k = 0; k < loadedCount; ++k) {
+				int i = loaded[k];
+				if((state[i] & CHANGED) != 0 || near(i)) {
+					continue;
+				}
+				if(worst == -1 || used[i] - used[loaded[worst]] < 0) {
+					worst = k;
+				}
+			}
+			if(worst == -1) {
+				return;
+			}
+			chunks[loaded[worst]] = null;
+			loaded[worst] = loaded[--loadedCount];
+			++evictions;
+		}
+	}
+
+	private boolean near(int i) {
+		int cx = i % chunksAcross;
+		int cy = i / chunksAcross;
+		return cx >= keepLeft && cx <= keepRight && cy >= keepUp && cy <= keepDown;
+	}
+
+	/**
+	 * called when a chunk finishes loading in the background
+	 */
+	public interface Arrival {
+		public void arrived(int cx, int cy);
+	}
+
+	/**
+	 * puts the chunks that finished loading in the background into the grid
+	 *
+	 * @param a - told about each chunk that came in, can be null
+	 *
+	 * @return if any chunks came in
+	 */
+	public boolean poll(Arrival a) {
+		boolean any = false;
+		Loaded l;
+		while((l = arrived.poll()) != null) {
+			//it might have been read already because it was needed sooner
+			if(chunks[l.index] == null) {
+				install(l.index, l.cells);
+				if(a != null) {
+					a.arrived(l.index % chunksAcross, l.index / chunksAcross);
+				}
+				any = true;
+			}
+		}
+		return any;
+	}
+
+	/**
+	 * stops anything still waiting to be read
+	 */
+	public void destroy() {
+		destroyed = true;
+		arrived.clear();
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return how many chunks are loaded right now
+	 */
+	public int getLoadedChunks() {
+		return loadedCount;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return how many chunks had to be read right when they were needed, because they weren't loaded in time
+	 */
+	public int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return how many chunks have been loaded in total
+	 */
+	public int getReads() {
+		return reads;
+	}
+
+	/**
+	 * @return how many chunks have been thrown out
+	 */
+	public int getEvictions() {
+		return evictions;
+	}
+
+}
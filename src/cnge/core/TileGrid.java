@@ -0,0 +1,192 @@
+package cnge.core;
+
+/**
+ * the blocks of a map, all in one flat array instead of an array for every column.
+ *
+ * cells go row by row, so the cell at (x, y) is at y * width + x, and going along x is going along the array.
+ * each cell is a short, the low byte is the block id plus one so the default block -1 is 0,
+ * and the high byte is flags for the game to use however it wants, like which sides of a block are walls.
+ *
+ * a {@link #copy()} shares the cells of the grid it came from, and only copies a chunk of them the first time
+ * something in that chunk is changed, so copies are free to make and only take as much memory as what was changed.
+ * the grid that was copied shouldn't change after that, or the copies will see it
+ */
+public class TileGrid implements CellGrid {
+
+	/**
+	 * block ids have to be less than this to fit in a cell
+	 */
+	public static final int MAX_BLOCKS = 255;
+
+	/**
+	 * chunks that are copied when they change are this many cells across and down
+	 */
+	public static final int CHUNK_SIZE = 32;
+
+	static final int SHIFT = 5;
+	static final int MASK = CHUNK_SIZE - 1;
+
+	private short[] cells;
+	private int width;
+	private int height;
+
+	/*
+	 * copy on write stuff, the cells belong to someone else when shared is true,
+	 * and any chunk that's been changed is in its own array in overlay, row by row
+	 */
+	private boolean shared;
+	private short[][] overlay;
+	private int chunksAcross;
+	private int copied;
+
+	/**
+	 * makes a grid full of the default block with no flags
+	 *
+	 * @param w - width in blocks
+	 * @param h - height in blocks
+	 */
+	public TileGrid(int w, int h) {
+		this(w, h, new short[w * h]);
+	}
+
+	/**
+	 * @param c - the cells, row by row, not copied
+	 */
+	public TileGrid(int w, int h, short[] c) {
+		if(c.length != w * h) {
+			throw new IllegalArgumentException(c.length + " cells can't be " + w + " by " + h);
+		}
+		width = w;
+		height = h;
+		cells = c;
+		chunksAcross = (w + MASK) >> SHIFT;
+	}
+
+	/**
+	 * packs a block id and flags into a cell
+	 */
+	public static int cell(int block, int flags) {
+		return (block + 1) | (flags << 8);
+	}
+
+	/**
+	 * @return the block id in a cell
+	 */
+	public static int block(int cell) {
+		return (cell & 0xff) - 1;
+	}
+
+	/**
+	 * @return the flags in a cell
+	 */
+	public static int flags(int cell) {
+		return (cell >>> 8) & 0xff;
+	}
+
+	public int getCell(int x, int y) {
+		if(overlay != null) {
+			short[] o = overlay[(y >> SHIFT) * chunksAcross + (x >> SHIFT)];
+			if(o != null) {
+				return o[((y & MASK) << SHIFT) | (x & MASK)] & 0xffff;
+			}
+		}
+		return cells[y * width + x] & 0xffff;
+	}
+
+	public void setCell(int x, int y, int c) {
+		if(!shared) {
+			cells[y * width + x] = (short)c;
+		} else {
+			writable(x, y)[((y & MASK) << SHIFT) | (x & MASK)] = (short)c;
+		}
+	}
+
+	/**
+	 * gets the chunk a spot is in ready to be changed, copying it out of the shared cells if it hasn't been yet
+	 */
+	private short[] writable(int x, int y) {
+		int cx = x >> SHIFT;
+		int cy = y >> SHIFT;
+		if(overlay == null) {
+			overlay = new short[chunksAcross * ((height + MASK) >> SHIFT)][];
+		}
+		short[] o = overlay[cy * chunksAcross + cx];
+		if(o == null) {
+			o = new short[CHUNK_SIZE * CHUNK_SIZE];
+			int x0 = cx << SHIFT;
+			int y0 = cy << SHIFT;
+			int w = Math.min(CHUNK_SIZE, width - x0);
+			int h = Math.min(CHUNK_SIZE, height - y0);
+			for(int j = 0; j < h; ++j) {
+				System.arraycopy(cells, (y0 + j) * width + x0, o, j << SHIFT, w);
+			}
+			overlay[cy * chunksAcross + cx] = o;
+			++copied;
+		}
+		return o;
+	}
+
+	/**
+	 * the cells themselves, row by row, for going through the whole grid quickly.
+	 * changing them changes the grid.
+	 * if this is a copy, it stops sharing and gets all of its own cells first
+	 */
+	public short[] getCells() {
+		if(shared) {
+			short[] own = cells.clone();
+			if(overlay != null) {
+				for(int i = 0; i < overlay.length; ++i) {
+					short[] o = overlay[i];
+					if(o != null) {
+						int x0 = (i % chunksAcross) << SHIFT;
+						int y0 = (i / chunksAcross) << SHIFT;
+						int w = Math.min(CHUNK_SIZE, width - x0);
+						int h = Math.min(CHUNK_SIZE, height - y0);
+						for(int j = 0; j < h; ++j) {
+							System.arraycopy(o, j << SHIFT, own, (y0 + j) * width + x0, w);
+						}
+					}
+				}
+			}
+			cells = own;
+			overlay = null;
+			shared = false;
+		}
+		return cells;
+	}
+
+	/**
+	 * @return how many chunks this copy has had to copy because they were changed
+	 */
+	public int getCopiedChunks() {
+		return copied;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * doesn't copy any cells, just the chunks this grid has changed if it's a copy itself
+	 *
+	 * @return a grid with the same cells that can be changed without changing this one
+	 */
+	public TileGrid copy() {
+		TileGrid g = new TileGrid(width, height, cells);
+		g.shared = true;
+		if(overlay != null) {
+			g.overlay = new short[overlay.length][];
+			for(int i = 0; i < overlay.length; ++i) {
+				if(overlay[i] != null) {
+					g.overlay[i] = overlay[i].clone();
+				}
+			}
+		}
+		return g;
+	}
+
+}
@@ -0,0 +1,151 @@
+package cnge.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.glDrawElements;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+
+import java.nio.FloatBuffer;
+
+import org.joml.Matrix4f;
+
+import cnge.graphics.texture.Texture;
+
+/**
+ * a bunch of quads recorded by a {@link SpriteBatch} that stay on the gpu,
+ * for stuff that doesn't change every frame.
+ *
+ * the mesh remembers where the texture and shader changed while recording,
+ * and draws once for each of those parts
+ */
+public class BatchMesh {
+
+	private int vao;
+	private int vbo;
+
+	private int quads;
+	private int bytes;
+
+	private int segments;
+	private Texture[] textures;
+	private Shader[] shaders;
+	private int[] starts;
+	private int[] counts;
+
+	/**
+	 * only the sprite batch makes these, they share its index buffer
+	 *
+	 * @param ibo - the batch's index buffer
+	 */
+	BatchMesh(int ibo) {
+		textures = new Texture[2];
+		shaders = new Shader[2];
+		starts = new int[2];
+		counts = new int[2];
+
+		vao = glGenVertexArrays();
+		RenderState.bindVertexArray(vao);
+
+		vbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		SpriteBatch.setupAttribs();
+
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ibo);
+	}
+
+	void clear() {
+		segments = 0;
+		quads = 0;
+	}
+
+	void addSegment(Texture t, Shader s, int start, int count) {
+		if(segments == textures.length) {
+			int len = segments * 2;
+			Texture[] nt = new Texture[len];
+			Shader[] ns = new Shader[len];
+			int[] nst = new int[len];
+			int[] nc = new int[len];
+			System.arraycopy(textures, 0, nt, 0, segments);
+			System.arraycopy(shaders, 0, ns, 0, segments);
+			System.arraycopy(starts, 0, nst, 0, segments);
+			System.arraycopy(counts, 0, nc, 0, segments);
+			textures = nt;
+			shaders = ns;
+			starts = nst;
+			counts = nc;
+		}
+		textures[segments] = t;
+		shaders[segments] = s;
+		starts[segments] = start;
+		counts[segments] = count;
+		++segments;
+	}
+
+	void upload(FloatBuffer v, int q) {
+		quads = q;
+		bytes = v.remaining() * 4;
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glBufferData(GL_ARRAY_BUFFER, v, GL_STATIC_DRAW);
+	}
+
+	/**
+	 * draws the whole mesh
+	 *
+	 * @param mvp - the model view projection matrix for the mesh
+	 */
+	public void render(Matrix4f mvp) {
+		if(quads == 0) {
+			return;
+		}
+		RenderState.bindVertexArray(vao);
+		for(int i = 0; i < segments; ++i) {
+			textures[i].bind();
+
+			shaders[i].enable();
+			shaders[i].setMvp(mvp);
+
+			glDrawElements(GL_TRIANGLES, counts[i] * SpriteBatch.QUAD_INDICES, GL_UNSIGNED_INT, (long)starts[i] * SpriteBatch.QUAD_INDICES * 4);
+			RenderState.countDraw();
+		}
+
+		Shader.disable();
+
+		Texture.unbind();
+	}
+
+	/**
+	 * @return how many quads are in the mesh
+	 */
+	public int getQuads() {
+		return quads;
+	}
+
+	/**
+	 * @return how many draw calls it takes to render the mesh
+	 */
+	public int getSegments() {
+		return segments;
+	}
+
+	/**
+	 * @return how many bytes of vertex data the mesh holds on the gpu
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+
+	public void destroy() {
+		glDeleteBuffers(vbo);
+		glDeleteVertexArrays(vao);
+		RenderState.deleteVertexArray(vao);
+	}
+
+}
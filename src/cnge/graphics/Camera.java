@@ -1,18 +1,51 @@
 package cnge.graphics;
+import static org.lwjgl.opengl.GL15.GL_DYNAMIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL30.glBindBufferBase;
+import static org.lwjgl.opengl.GL31.GL_UNIFORM_BUFFER;
+
+import java.nio.FloatBuffer;
+
 import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+
+import cnge.core.Base;
 
 public class Camera {
 	
+	/**
+	 * the uniform buffer binding point of the camera block.
+	 * the block is std140, projectionView then projection, see res/shaders/tile/til2d.vs
+	 */
+	public static final int UNIFORM_BINDING = 0;
+	
 	private Transform transform;
 	
 	private Matrix4f projection, projectionView;
 	
+	private int ubo;
+	private FloatBuffer uboData;
+	
 	private float defaultWidth;
 	private float defaultHeight;
 	
 	public Camera(float w, float h) {
 		transform = new Transform();
+		projection = new Matrix4f();
 		projectionView = new Matrix4f();
+		
+		uboData = BufferUtils.createFloatBuffer(32);
+		//no opengl when running headless
+		if(!Base.headless) {
+			ubo = glGenBuffers();
+			glBindBuffer(GL_UNIFORM_BUFFER, ubo);
+			glBufferData(GL_UNIFORM_BUFFER, 32 * 4, GL_DYNAMIC_DRAW);
+			glBindBufferBase(GL_UNIFORM_BUFFER, UNIFORM_BINDING, ubo);
+		}
+		
 		setDims(w, h);
 	}
 	
@@ -26,7 +59,7 @@ public class Camera {
 	 */
 	public void defaultDims() {
 		transform.setSize(defaultWidth, defaultHeight);
-		projection = new Matrix4f().setOrtho(0, defaultWidth, defaultHeight, 0, 1, -1);
+		projection.setOrtho(0, defaultWidth, defaultHeight, 0, 1, -1);
 		update();
 	}
 	
@@ -38,19 +71,27 @@ public class Camera {
 	 */
 	public void setDims(float w, float h) {
 		transform.setSize(w, h);
-		projection = new Matrix4f().setOrtho(0, w, h, 0, 1, -1);
+		projection.setOrtho(0, w, h, 0, 1, -1);
 		update();
 	}
 	
 	/**
 	 * sets the projection view of the camera.
 	 * 
-	 * you need to do this after every transformation or else things won't render with the new camera transformation
+	 * you need to do this after every transformation or else things won't render with the new camera transformation.
+	 * this also sends the matrices to the camera block that every shader shares
 	 */
 	public void update() {
 		projection.scale(transform.wScale, transform.hScale, 1, projectionView);
 		projection.rotateZ(-transform.rotation, projectionView);
 		projection.translate(-transform.x, -transform.y, 0, projectionView);
+		
+		if(ubo != 0) {
+			projectionView.get(0, uboData);
+			projection.get(16, uboData);
+			glBindBuffer(GL_UNIFORM_BUFFER, ubo);
+			glBufferSubData(GL_UNIFORM_BUFFER, 0, uboData);
+		}
 	}
 	
 	/**
@@ -61,7 +102,32 @@ public class Camera {
 	 * @return the model matrix in world coordiantes
 	 */
 	public Matrix4f getModelMatrix(Transform transform) {
-		return new Matrix4f().translate(transform.x + ((-transform.width * transform.wScale) / 2) + (transform.width / 2), transform.y + ((-transform.height * transform.hScale) / 2) + (transform.height / 2), 0).rotateZ(transform.rotation).scale(transform.getWidth(), transform.getHeight(), 1);
+		return getModelMatrix(transform, new Matrix4f());
+	}
+	
+	/**
+	 * gets the model matrix from a certain transform without making a new matrix
+	 * 
+	 * @param transform - the transform of the model
+	 * @param dest - where the model matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getModelMatrix(Transform transform, Matrix4f dest) {
+		return dest.translation(transform.x + ((-transform.width * transform.wScale) / 2) + (transform.width / 2), transform.y + ((-transform.height * transform.hScale) / 2) + (transform.height / 2), 0).rotateZ(transform.rotation).scale(transform.getWidth(), transform.getHeight(), 1);
+	}
+	
+	/**
+	 * gets a model matrix for something on the gui, that ends up in the right place when drawn with the projection view.
+	 * for shaders that use the camera block
+	 * 
+	 * @param transform - the transform of the model, in screen coordinates
+	 * @param dest - where the model matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getGuiModelMatrix(Transform transform, Matrix4f dest) {
+		return getModelMatrix(transform, dest).translateLocal(this.transform.x, this.transform.y, 0);
 	}
 	
 	/**
@@ -76,11 +142,19 @@ public class Camera {
 	 * @return the model matrix in world coordiantes
 	 */
 	public Matrix4f getModelMatrix(float left, float right, float up, float down) {
-		return new Matrix4f().translate(left, up, 0).scale(right - left, down - up, 1);
+		return getModelMatrix(left, right, up, down, new Matrix4f());
+	}
+	
+	public Matrix4f getModelMatrix(float left, float right, float up, float down, Matrix4f dest) {
+		return dest.translation(left, up, 0).scale(right - left, down - up, 1);
 	}
 	
 	public Matrix4f getModelMatrixDims(float left, float up, float width, float height) {
-		return new Matrix4f().translate(left, up, 0).scale(width , height, 1);
+		return getModelMatrixDims(left, up, width, height, new Matrix4f());
+	}
+	
+	public Matrix4f getModelMatrixDims(float left, float up, float width, float height, Matrix4f dest) {
+		return dest.translation(left, up, 0).scale(width , height, 1);
 	}
 	
 	
@@ -92,7 +166,33 @@ public class Camera {
 	 * @return the mvp matrix in ndc
 	 */
 	public Matrix4f getModelViewProjectionMatrix(Matrix4f model) {
-		return new Matrix4f(projectionView).mul(model);	
+		return getModelViewProjectionMatrix(model, new Matrix4f());	
+	}
+	
+	/**
+	 * gets the mvp matrix from a certain model matrix without making a new matrix.
+	 * dest can be the model matrix itself
+	 * 
+	 * @param model - the matrix of the model
+	 * @param dest - where the mvp matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getModelViewProjectionMatrix(Matrix4f model, Matrix4f dest) {
+		return projectionView.mul(model, dest);
+	}
+	
+	/**
+	 * gets the mvp matrix for a transform straight into dest,
+	 * the same as getModelViewProjectionMatrix(getModelMatrix(t)) but without any new matrices
+	 * 
+	 * @param t - the transform of the model
+	 * @param dest - where the mvp matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getMVP(Transform t, Matrix4f dest) {
+		return getModelViewProjectionMatrix(getModelMatrix(t, dest), dest);
 	}
 	
 	/**
@@ -104,7 +204,32 @@ public class Camera {
 	 * @return the model projection matrix in gui ndc
 	 */
 	public Matrix4f getModelProjectionMatrix(Matrix4f model) {
-		return new Matrix4f(projection).mul(model);
+		return getModelProjectionMatrix(model, new Matrix4f());
+	}
+	
+	/**
+	 * gets the gui model projection matrix without making a new matrix.
+	 * dest can be the model matrix itself
+	 * 
+	 * @param model - the matrix of the model
+	 * @param dest - where the model projection matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getModelProjectionMatrix(Matrix4f model, Matrix4f dest) {
+		return projection.mul(model, dest);
+	}
+	
+	/**
+	 * gets the gui model projection matrix for a transform straight into dest
+	 * 
+	 * @param t - the transform of the model
+	 * @param dest - where the model projection matrix goes
+	 * 
+	 * @return dest
+	 */
+	public Matrix4f getMP(Transform t, Matrix4f dest) {
+		return getModelProjectionMatrix(getModelMatrix(t, dest), dest);
 	}
 	
 	/**
@@ -116,7 +241,11 @@ public class Camera {
 	 * @return the model projection matrix in ndc coordinates
 	 */
 	public Matrix4f ndcFullMatrix(float w, float h) {
-		return new Matrix4f().translate(-w, -h, 0).scale(2 * w, 2 * h, 1);
+		return ndcFullMatrix(w, h, new Matrix4f());
+	}
+	
+	public Matrix4f ndcFullMatrix(float w, float h, Matrix4f dest) {
+		return dest.translation(-w, -h, 0).scale(2 * w, 2 * h, 1);
 	}
 	
 	/**
@@ -125,7 +254,31 @@ public class Camera {
 	 * @return the model projection matrix in ndc coordinates
 	 */
 	public Matrix4f ndcFullMatrix() {
-		return new Matrix4f().translate(-1, -1, 0).scale(2, 2, 1);
+		return ndcFullMatrix(new Matrix4f());
+	}
+	
+	public Matrix4f ndcFullMatrix(Matrix4f dest) {
+		return dest.translation(-1, -1, 0).scale(2, 2, 1);
+	}
+	
+	/**
+	 * gets the projection matrix, without the camera's position in it.
+	 * this is the same matrix that {@link #getModelProjectionMatrix(Matrix4f)} multiplies by
+	 * 
+	 * @return the projection matrix
+	 */
+	public Matrix4f getProjection() {
+		return projection;
+	}
+	
+	/**
+	 * gets the projection matrix with the camera's position in it,
+	 * for things that already have their world positions baked in
+	 * 
+	 * @return the projection view matrix
+	 */
+	public Matrix4f getProjectionView() {
+		return projectionView;
 	}
 	
 	/**
@@ -12,6 +12,8 @@ public class FBO {
 	
     private int id;
     private int depthRenderBufferID;
+    private int depthWidth;
+    private int depthHeight;
     private Texture texture;
     
     private static Camera camera;
@@ -25,7 +27,7 @@ public class FBO {
         id = glGenFramebuffers();
         
         //bind
-        glBindFramebuffer(GL_FRAMEBUFFER, id);
+        RenderState.bindFramebuffer(id);
         
         glDrawBuffer(GL_COLOR_ATTACHMENT0);
         
@@ -35,7 +37,7 @@ public class FBO {
         bindDepthRenderBuffer(tex.getWidth(), tex.getHeight());
         
         //unbind
-        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        RenderState.bindFramebuffer(0);
     }
     
     /**
@@ -47,7 +49,7 @@ public class FBO {
         id = glGenFramebuffers();
         
         //bind
-        glBindFramebuffer(GL_FRAMEBUFFER, id);
+        RenderState.bindFramebuffer(id);
         
         glDrawBuffer(GL_COLOR_ATTACHMENT0);
         
@@ -57,7 +59,7 @@ public class FBO {
         bindDepthRenderBuffer(tex.getWidth(), tex.getHeight());
         
         //unbind
-        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        RenderState.bindFramebuffer(0);
     }
     
     public static void giveStuff(Window w, Camera c) {
@@ -66,16 +68,24 @@ public class FBO {
     }
     
     /**
-     * binds a new replacement texture to the fbo
+     * binds a new replacement texture to the fbo.
+     * the old texture isn't destroyed, it's given back so whoever made it can get rid of it
      * 
      * @param tex - the motherfuckin texture
+     * 
+     * @return the texture that was there before
      */
-    public void replaceTexture(Texture tex) {
-    	glBindFramebuffer(GL_FRAMEBUFFER, id);
+    public Texture replaceTexture(Texture tex) {
+    	Texture old = texture;
+    	RenderState.bindFramebuffer(id);
         glFramebufferTexture(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, tex.getId(), 0);
         texture = tex;
-        bindDepthRenderBuffer(tex.getWidth(), tex.getHeight());
-        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        //the depth buffer only has to change if the size did
+        if(tex.getWidth() != depthWidth || tex.getHeight() != depthHeight) {
+        	bindDepthRenderBuffer(tex.getWidth(), tex.getHeight());
+        }
+        RenderState.bindFramebuffer(0);
+        return old;
     }
 
     
@@ -86,6 +96,11 @@ public class FBO {
      * @param h - height of the render buffer
      */
     private void bindDepthRenderBuffer(int w, int h) {
+        if(depthRenderBufferID != 0) {
+        	glDeleteRenderbuffers(depthRenderBufferID);
+        }
+        depthWidth = w;
+        depthHeight = h;
         depthRenderBufferID = glGenRenderbuffers();
         glBindRenderbuffer(GL_RENDERBUFFER, depthRenderBufferID);
         glRenderbufferStorage(GL_RENDERBUFFER, GL_DEPTH_COMPONENT, w, h);
@@ -96,8 +111,11 @@ public class FBO {
      * enables THIS frameBuffer
      */
     public void enable() {
-        glBindTexture(GL_TEXTURE_2D, 0);
-        glBindFramebuffer(GL_FRAMEBUFFER, id);
+        //can't be reading from the texture we're drawing into
+        if(RenderState.getTexture(0) == texture.getId()) {
+        	RenderState.bindTexture(0, 0);
+        }
+        RenderState.bindFramebuffer(id);
         glViewport(0, 0, texture.getWidth(), texture.getHeight());
     }
     
@@ -105,7 +123,7 @@ public class FBO {
      * switches the frameBuffer back to the window
      */
     public static void enableDefault() {
-    	glBindFramebuffer(GL_FRAMEBUFFER, 0);
+    	RenderState.bindFramebuffer(0);
         glViewport(0, 0, window.getWidth(), window.getHeight());
     }
     
@@ -135,4 +153,13 @@ public class FBO {
     public int getDepthRenderBufferID() {
         return depthRenderBufferID;
     }
+    
+    /**
+     * deletes the fbo and its depth buffer, the texture is left for whoever made it
+     */
+    public void destroy() {
+    	glDeleteRenderbuffers(depthRenderBufferID);
+    	glDeleteFramebuffers(id);
+    	RenderState.deleteFramebuffer(id);
+    }
 }
\ No newline at end of file
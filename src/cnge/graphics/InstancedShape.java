@@ -0,0 +1,195 @@
+package cnge.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * a rect that gets drawn many times in one draw call, once for every instance added to it.
+ *
+ * each instance has its own position and size (location 2), tile frame (location 3)
+ * and color (location 4), see res/shaders/tile/til2di.vs.
+ * bind the texture and the shader before calling render, the shader gets the projection view from the camera block
+ */
+public class InstancedShape {
+
+	/**
+	 * floats per instance, model (4) frame (4) color (4)
+	 */
+	private static final int INSTANCE_SIZE = 12;
+
+	private int vao;
+	private int vertexVbo;
+	private int texVbo;
+	private int ibo;
+	private int instanceVbo;
+
+	private int capacity;
+	private int count;
+	private FloatBuffer instances;
+
+	/**
+	 * @param c - how many instances fit before the buffer has to grow
+	 */
+	public InstancedShape(int c) {
+		capacity = c;
+		instances = BufferUtils.createFloatBuffer(capacity * INSTANCE_SIZE);
+
+		vao = glGenVertexArrays();
+		RenderState.bindVertexArray(vao);
+
+		//same as the rect shape
+		vertexVbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vertexVbo);
+		glBufferData(GL_ARRAY_BUFFER, new float[] {
+			1, 0, 0,
+			1, 1, 0,
+			0, 1, 0,
+			0, 0, 0
+		}, GL_STATIC_DRAW);
+		glVertexAttribPointer(0, 3, GL_FLOAT, false, 0, 0);
+		glEnableVertexAttribArray(0);
+
+		texVbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, texVbo);
+		glBufferData(GL_ARRAY_BUFFER, new float[] {
+			1, 0,
+			1, 1,
+			0, 1,
+			0, 0
+		}, GL_STATIC_DRAW);
+		glVertexAttribPointer(1, 2, GL_FLOAT, false, 0, 0);
+		glEnableVertexAttribArray(1);
+
+		ibo = glGenBuffers();
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ibo);
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, new int[] {
+			0, 1, 3,
+			1, 2, 3
+		}, GL_STATIC_DRAW);
+
+		//the per instance stuff, the divisor makes it go up once per instance instead of once per vertex
+		instanceVbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, instanceVbo);
+		glBufferData(GL_ARRAY_BUFFER, capacity * INSTANCE_SIZE * 4, GL_STREAM_DRAW);
+		int stride = INSTANCE_SIZE * 4;
+		for(int i = 0; i < 3; ++i) {
+			glVertexAttribPointer(2 + i, 4, GL_FLOAT, false, stride, i * 4 * 4);
+			glVertexAttribDivisor(2 + i, 1);
+			glEnableVertexAttribArray(2 + i);
+		}
+	}
+
+	/**
+	 * gets rid of all the instances so they can be added again for this frame
+	 */
+	public void clear() {
+		instances.clear();
+		count = 0;
+	}
+
+	/**
+	 * adds an instance
+	 *
+	 * @param x - left side in world coordinates
+	 * @param y - top side in world coordinates
+	 * @param w - width, negative to flip
+	 * @param h - height, negative to flip
+	 * @param fx - frame width
+	 * @param fy - frame height
+	 * @param fz - frame x offset
+	 * @param fw - frame y offset
+	 * @param r - red tint
+	 * @param g - green tint
+	 * @param b - blue tint
+	 * @param a - alpha tint
+	 */
+	public void add(float x, float y, float w, float h, float fx, float fy, float fz, float fw, float r, float g, float b, float a) {
+		if(count == capacity) {
+			grow();
+		}
+		instances.put(x).put(y).put(w).put(h);
+		instances.put(fx).put(fy).put(fz).put(fw);
+		instances.put(r).put(g).put(b).put(a);
+		++count;
+	}
+
+	/**
+	 * adds an instance where a transform is, the same place {@link Camera#getModelMatrix(Transform)} puts it.
+	 * rotation is not supported
+	 *
+	 * @param t - where the instance goes
+	 */
+	public void add(Transform t, float fx, float fy, float fz, float fw, float r, float g, float b, float a) {
+		float w = t.getWidth();
+		float h = t.getHeight();
+		add(t.x + (t.width - w) / 2, t.y + (t.height - h) / 2, w, h, fx, fy, fz, fw, r, g, b, a);
+	}
+
+	private void grow() {
+		capacity *= 2;
+		FloatBuffer bigger = BufferUtils.createFloatBuffer(capacity * INSTANCE_SIZE);
+		instances.flip();
+		bigger.put(instances);
+		instances = bigger;
+	}
+
+	/**
+	 * draws every instance in one call, using whatever shader and texture are bound
+	 */
+	public void render() {
+		if(count == 0) {
+			return;
+		}
+		instances.flip();
+
+		glBindBuffer(GL_ARRAY_BUFFER, instanceVbo);
+		//orphan the old storage, and it also grows with the buffer this way
+		glBufferData(GL_ARRAY_BUFFER, capacity * INSTANCE_SIZE * 4, GL_STREAM_DRAW);
+		glBufferSubData(GL_ARRAY_BUFFER, 0, instances);
+
+		RenderState.bindVertexArray(vao);
+		glDrawElementsInstanced(GL_TRIANGLES, 6, GL_UNSIGNED_INT, 0, count);
+		RenderState.countDraw();
+
+		//so more can be added without clearing
+		instances.position(instances.limit());
+		instances.limit(instances.capacity());
+	}
+
+	/**
+	 * @return how many instances are waiting to be drawn
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	public void destroy() {
+		glDeleteBuffers(vertexVbo);
+		glDeleteBuffers(texVbo);
+		glDeleteBuffers(ibo);
+		glDeleteBuffers(instanceVbo);
+		glDeleteVertexArrays(vao);
+		RenderState.deleteVertexArray(vao);
+	}
+
+}
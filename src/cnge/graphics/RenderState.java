@@ -0,0 +1,246 @@
+package cnge.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.glBindFramebuffer;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+
+/**
+ * remembers what's bound in opengl so binding the same thing twice in a row doesn't cost anything.
+ *
+ * everything in cnge binds programs, textures, framebuffers and vertex arrays through here,
+ * so if you call opengl yourself, call {@link #invalidate()} afterwards.
+ *
+ * unbinding is a no-op unless force unbind is on, the next bind just replaces whatever was there.
+ * it also counts how many switches actually happened each frame
+ */
+public class RenderState {
+
+	/**
+	 * how many texture units are tracked
+	 */
+	public static final int UNITS = 8;
+
+	/**
+	 * nothing real is ever bound to this, so the next bind always goes through
+	 */
+	private static final int UNKNOWN = -1;
+
+	private static int program;
+	private static int[] textures = new int[UNITS];
+	private static int activeUnit;
+	private static int framebuffer;
+	private static int vertexArray;
+
+	private static boolean forceUnbind;
+
+	/*
+	 * counters for this frame
+	 */
+	private static int programSwitches;
+	private static int textureBinds;
+	private static int framebufferSwitches;
+	private static int drawCalls;
+	private static int skipped;
+
+	/*
+	 * counters from the last whole frame
+	 */
+	private static int lastProgramSwitches;
+	private static int lastTextureBinds;
+	private static int lastFramebufferSwitches;
+	private static int lastDrawCalls;
+	private static int lastSkipped;
+
+	public static void useProgram(int p) {
+		if(p == program) {
+			++skipped;
+			return;
+		}
+		glUseProgram(p);
+		program = p;
+		++programSwitches;
+	}
+
+	/**
+	 * @param unit - the texture unit, 0 based
+	 * @param id - the texture to bind to it
+	 */
+	public static void bindTexture(int unit, int id) {
+		if(textures[unit] == id) {
+			++skipped;
+			return;
+		}
+		if(activeUnit != unit) {
+			glActiveTexture(GL_TEXTURE0 + unit);
+			activeUnit = unit;
+		}
+		glBindTexture(GL_TEXTURE_2D, id);
+		textures[unit] = id;
+		++textureBinds;
+	}
+
+	public static void bindFramebuffer(int id) {
+		if(id == framebuffer) {
+			++skipped;
+			return;
+		}
+		glBindFramebuffer(GL_FRAMEBUFFER, id);
+		framebuffer = id;
+		++framebufferSwitches;
+	}
+
+	public static void bindVertexArray(int id) {
+		if(id == vertexArray) {
+			++skipped;
+			return;
+		}
+		glBindVertexArray(id);
+		vertexArray = id;
+	}
+
+	/**
+	 * stops using the current program, only if force unbind is on
+	 */
+	public static void releaseProgram() {
+		if(forceUnbind) {
+			useProgram(0);
+		}
+	}
+
+	/**
+	 * unbinds a texture unit, only if force unbind is on
+	 *
+	 * @param unit - the texture unit, 0 based
+	 */
+	public static void releaseTexture(int unit) {
+		if(forceUnbind) {
+			bindTexture(unit, 0);
+		}
+	}
+
+	/**
+	 * @param unit - the texture unit, 0 based
+	 *
+	 * @return the texture we think is bound to the unit
+	 */
+	public static int getTexture(int unit) {
+		return textures[unit];
+	}
+
+	/*
+	 * call these when deleting something,
+	 * opengl reuses names so a new object could come back with the same id
+	 */
+
+	public static void deleteProgram(int p) {
+		if(program == p) {
+			program = UNKNOWN;
+		}
+	}
+
+	public static void deleteTexture(int id) {
+		for(int i = 0; i < UNITS; ++i) {
+			if(textures[i] == id) {
+				textures[i] = UNKNOWN;
+			}
+		}
+	}
+
+	public static void deleteFramebuffer(int id) {
+		if(framebuffer == id) {
+			framebuffer = UNKNOWN;
+		}
+	}
+
+	public static void deleteVertexArray(int id) {
+		if(vertexArray == id) {
+			vertexArray = UNKNOWN;
+		}
+	}
+
+	/**
+	 * forgets everything, so the next bind of anything really happens
+	 */
+	public static void invalidate() {
+		program = UNKNOWN;
+		for(int i = 0; i < UNITS; ++i) {
+			textures[i] = UNKNOWN;
+		}
+		activeUnit = UNKNOWN;
+		framebuffer = UNKNOWN;
+		vertexArray = UNKNOWN;
+	}
+
+	/**
+	 * when on, unbinds and disables actually happen, for tracking down something that depends on them
+	 *
+	 * @param f - whether to really unbind
+	 */
+	public static void setForceUnbind(boolean f) {
+		forceUnbind = f;
+	}
+
+	/**
+	 * counts one draw call, call this right next to every glDraw
+	 */
+	public static void countDraw() {
+		++drawCalls;
+	}
+
+	/**
+	 * saves this frame's counters and starts counting again, the base calls this after every swap
+	 */
+	public static void endFrame() {
+		lastProgramSwitches = programSwitches;
+		lastTextureBinds = textureBinds;
+		lastFramebufferSwitches = framebufferSwitches;
+		lastDrawCalls = drawCalls;
+		lastSkipped = skipped;
+		programSwitches = 0;
+		textureBinds = 0;
+		framebufferSwitches = 0;
+		drawCalls = 0;
+		skipped = 0;
+	}
+
+	/**
+	 * @return how many times the program changed last frame
+	 */
+	public static int getProgramSwitches() {
+		return lastProgramSwitches;
+	}
+
+	/**
+	 * @return how many textures were actually bound last frame, on any unit
+	 */
+	public static int getTextureBinds() {
+		return lastTextureBinds;
+	}
+
+	/**
+	 * @return how many times the framebuffer changed last frame
+	 */
+	public static int getFramebufferSwitches() {
+		return lastFramebufferSwitches;
+	}
+
+	/**
+	 * @return how many draw calls were made last frame
+	 */
+	public static int getDrawCalls() {
+		return lastDrawCalls;
+	}
+
+	/**
+	 * @return how many binds were skipped last frame because the thing was already bound
+	 */
+	public static int getSkipped() {
+		return lastSkipped;
+	}
+
+}
@@ -0,0 +1,133 @@
+package cnge.graphics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import cnge.graphics.texture.Texture;
+import cnge.graphics.texture.TexturePreset;
+
+/**
+ * keeps framebuffer textures around so they can be used again instead of made again.
+ *
+ * a texture from {@link #acquire(int, int, TexturePreset)} goes back with {@link #release(Texture)}.
+ * released ones wait in the pool for someone asking for the same size and preset,
+ * and only the last few are kept, so a window being dragged doesn't pile up a texture for every size it went through
+ */
+public class RenderTargetPool {
+
+	/**
+	 * how many released textures are kept waiting
+	 */
+	public static final int MAX_FREE = 4;
+
+	private static class Target {
+		Texture texture;
+		int width;
+		int height;
+		int preset;
+	}
+
+	/*
+	 * oldest released first
+	 */
+	private static ArrayList<Target> free = new ArrayList<Target>();
+	private static IdentityHashMap<Texture, Target> inUse = new IdentityHashMap<Texture, Target>();
+
+	private static int created;
+	private static int reused;
+	private static int destroyed;
+
+	/**
+	 * gets a blank texture to draw into
+	 *
+	 * @param w - width
+	 * @param h - height
+	 * @param tp - texture parameters
+	 *
+	 * @return a texture that's either new or was released before
+	 */
+	public static Texture acquire(int w, int h, TexturePreset tp) {
+		int p = presetBits(tp);
+		for(int i = free.size() - 1; i > -1; --i) {
+			Target t = free.get(i);
+			if(t.width == w && t.height == h && t.preset == p) {
+				free.remove(i);
+				inUse.put(t.texture, t);
+				++reused;
+				return t.texture;
+			}
+		}
+		Target t = new Target();
+		t.texture = new Texture(w, h, tp);
+		t.width = w;
+		t.height = h;
+		t.preset = p;
+		inUse.put(t.texture, t);
+		++created;
+		return t.texture;
+	}
+
+	/**
+	 * gives a texture back, textures that didn't come from the pool are just destroyed
+	 *
+	 * @param tex - the texture, null does nothing
+	 */
+	public static void release(Texture tex) {
+		if(tex == null) {
+			return;
+		}
+		Target t = inUse.remove(tex);
+		if(t == null) {
+			tex.destroy();
+			++destroyed;
+			return;
+		}
+		free.add(t);
+		if(free.size() > MAX_FREE) {
+			free.remove(0).texture.destroy();
+			++destroyed;
+		}
+	}
+
+	/**
+	 * destroys every texture waiting in the pool
+	 */
+	public static void trim() {
+		for(Target t : free) {
+			t.texture.destroy();
+			++destroyed;
+		}
+		free.clear();
+	}
+
+	private static int presetBits(TexturePreset tp) {
+		return (tp.clampHorz ? 1 : 0) | (tp.clampVert ? 2 : 0) | (tp.nearest ? 4 : 0);
+	}
+
+	public static int getCreated() {
+		return created;
+	}
+
+	public static int getReused() {
+		return reused;
+	}
+
+	public static int getDestroyed() {
+		return destroyed;
+	}
+
+	/**
+	 * @return how many pooled textures are out being used
+	 */
+	public static int getInUse() {
+		return inUse.size();
+	}
+
+	/**
+	 * @return how many textures are waiting in the pool
+	 */
+	public static int getFree() {
+		return free.size();
+	}
+
+}
@@ -1,13 +1,18 @@
 package cnge.graphics;
 
 import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL31.GL_INVALID_INDEX;
+import static org.lwjgl.opengl.GL31.glGetUniformBlockIndex;
+import static org.lwjgl.opengl.GL31.glUniformBlockBinding;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.FloatBuffer;
 
 import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
 
 abstract public class Shader {
 	
@@ -21,6 +26,16 @@ abstract public class Shader {
 	 */
 	protected int mvpLoc;
 	
+	/**
+	 * shaders that use the camera block only need the model matrix, this is its uniform location
+	 */
+	protected int modelLoc;
+	
+	/**
+	 * every matrix goes through here on the way to opengl, so uploading one doesn't make garbage
+	 */
+	protected static final FloatBuffer MATRIX = BufferUtils.createFloatBuffer(16);
+	
 	/**
 	 * creates a shader
 	 * 
@@ -40,6 +55,13 @@ abstract public class Shader {
 		glDeleteShader(frag);
 		
 		mvpLoc = glGetUniformLocation(program, "mvp");
+		modelLoc = glGetUniformLocation(program, "model");
+		
+		//hook the camera block up to where the camera keeps its buffer
+		int block = glGetUniformBlockIndex(program, "Camera");
+		if(block != GL_INVALID_INDEX) {
+			glUniformBlockBinding(program, block, Camera.UNIFORM_BINDING);
+		}
 	}
 	
 	private int loadShader(String path, int type) {
@@ -67,7 +89,16 @@ abstract public class Shader {
 	}
 	
 	public void setMvp(Matrix4f mvp) {
-		glUniformMatrix4fv(mvpLoc, false, mvp.get(new float[16]));
+		glUniformMatrix4fv(mvpLoc, false, mvp.get(MATRIX));
+	}
+	
+	/**
+	 * for shaders that use the camera block, the projection view is already on the gpu
+	 * 
+	 * @param model - the model matrix
+	 */
+	public void setModel(Matrix4f model) {
+		glUniformMatrix4fv(modelLoc, false, model.get(MATRIX));
 	}
 	
 	/**
@@ -77,7 +108,7 @@ abstract public class Shader {
 	 * @param params - the parameters to gice to the shader through uniforms
 	 */
 	public void enable() {
-		glUseProgram(program);
+		RenderState.useProgram(program);
 	}
 
 	/**
@@ -89,10 +120,12 @@ abstract public class Shader {
 	 */
 	
 	/**
-	 * call this after rendering is done to stop using the shader
+	 * call this after rendering is done to stop using the shader.
+	 * it doesn't actually do anything unless {@link RenderState#setForceUnbind(boolean)} is on,
+	 * the next shader enabled just replaces this one
 	 */
 	public static void disable() {
-		glUseProgram(0);
+		RenderState.releaseProgram();
 	}
 	
 	/**
@@ -100,6 +133,7 @@ abstract public class Shader {
 	 */
 	public void destroy() {
 		glDeleteProgram(program);
+		RenderState.deleteProgram(program);
 	}
 
 }
\ No newline at end of file
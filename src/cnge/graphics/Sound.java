@@ -5,15 +5,28 @@ import org.lwjgl.openal.AL10;
 
 public class Sound {
 
-	private int buffer;
+	private SoundBuffer buffer;
 	private int sourceId;
 	
+	/**
+	 * whether this sound made its own buffer, and has to get rid of it
+	 */
+	private boolean ownsBuffer;
+	
 	public Sound(String path) {
+		this(new SoundBuffer(path));
+		ownsBuffer = true;
+	}
+	
+	/**
+	 * a sound that plays a buffer something else loaded, the buffer isn't destroyed with the sound
+	 * 
+	 * @param b - the sound data
+	 */
+	public Sound(SoundBuffer b) {
+		buffer = b;
 		sourceId = AL10.alGenSources();
-		buffer = AL10.alGenBuffers();
-		WaveData waveData = WaveData.create(path);
-		AL10.alBufferData(buffer, waveData.format, waveData.data, waveData.samplerate);
-		AL10.alSourcei(sourceId, AL10.AL_BUFFER, buffer);
+		AL10.alSourcei(sourceId, AL10.AL_BUFFER, buffer.getId());
 		AL10.alSourcef(sourceId, AL10.AL_GAIN, 1);
 		AL10.alSourcef(sourceId, AL10.AL_PITCH, 1);
 	}
@@ -33,7 +46,9 @@ public class Sound {
 	}
 	
 	public void destroy() {
-		AL10.alDeleteBuffers(buffer);
 		AL10.alDeleteSources(sourceId);
+		if(ownsBuffer) {
+			buffer.destroy();
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,399 @@
+package cnge.graphics;
+
+import java.util.ArrayList;
+
+import org.lwjgl.openal.AL10;
+import org.lwjgl.openal.AL11;
+
+/**
+ * plays a bunch of clips through a fixed number of openal sources.
+ *
+ * clips are shared buffers, so playing the same one over and over never decodes anything again.
+ * when every source is busy, the quietest-priority oldest voice gets stopped for the new one.
+ * sounds far enough from the camera aren't given a source at all,
+ * one shots are just skipped, and loops wait around (virtual) until they can be heard again.
+ *
+ * call {@link #update()} once a frame
+ */
+public class SoundBank {
+
+	private static Camera camera;
+
+	/**
+	 * how quiet a voice can get before it isn't worth a source
+	 */
+	public static final float AUDIBLE = 0.01f;
+
+	private ArrayList<SoundBuffer> clips;
+
+	/*
+	 * the real openal sources, and which voice is using each one
+	 */
+	private int[] sources;
+	private int[] sourceVoice;
+
+	/*
+	 * every voice that's playing, real or virtual
+	 */
+	private boolean[] active;
+	private int[] clip;
+	private int[] source;
+	private int[] priority;
+	private long[] started;
+	private float[] gain;
+	private float[] x;
+	private float[] y;
+	private boolean[] loop;
+	private int[] generation;
+
+	/*
+	 * distances from the center of the camera, full volume inside near, nothing past far
+	 */
+	private float near;
+	private float far;
+
+	private int stolen;
+	private int skipped;
+
+	/**
+	 * @param s - how many openal sources to use
+	 * @param v - how many voices can be going at once, including virtual ones
+	 * @param n - distance from the camera where sounds start getting quieter
+	 * @param f - distance from the camera where sounds can't be heard
+	 */
+	public SoundBank(int s, int v, float n, float f) {
+		near = n;
+		far = f;
+		clips = new ArrayList<SoundBuffer>();
+
+		sources = new int[s];
+		sourceVoice = new int[s];
+		for(int i = 0; i < s; ++i) {
+			sources[i] = AL10.alGenSources();
+			//we do the distance ourselves, the position is only for panning
+			AL10.alSourcei(sources[i], AL10.AL_SOURCE_RELATIVE, AL10.AL_TRUE);
+			AL10.alSourcef(sources[i], AL10.AL_ROLLOFF_FACTOR, 0);
+			sourceVoice[i] = -1;
+		}
+
+		active = new boolean[v];
+		clip = new int[v];
+		source = new int[v];
+		priority = new int[v];
+		started = new long[v];
+		gain = new float[v];
+		x = new float[v];
+		y = new float[v];
+		loop = new boolean[v];
+		generation = new int[v];
+	}
+
+	public static void giveCamera(Camera c) {
+		camera = c;
+	}
+
+	/**
+	 * adds a clip to the bank, the bank doesn't destroy it
+	 *
+	 * @param b - the decoded sound
+	 *
+	 * @return the clip id to play it with
+	 */
+	public int add(SoundBuffer b) {
+		clips.add(b);
+		return clips.size() - 1;
+	}
+
+	/**
+	 * plays a clip somewhere in the world
+	 *
+	 * @param c - the clip id
+	 * @param p - priority, higher ones steal sources from lower ones
+	 * @param px - x in world coordinates
+	 * @param py - y in world coordinates
+	 * @param g - volume
+	 * @param l - whether it loops
+	 *
+	 * @return a handle to stop the voice with, or -1 if it was skipped
+	 */
+	public int play(int c, int p, float px, float py, float g, boolean l) {
+		float a = g * attenuation(px, py);
+		if(a < AUDIBLE && !l) {
+			++skipped;
+			return -1;
+		}
+
+		int v = freeVoice(p);
+		if(v == -1) {
+			++skipped;
+			return -1;
+		}
+
+		active[v] = true;
+		clip[v] = c;
+		source[v] = -1;
+		priority[v] = p;
+		started[v] = System.nanoTime();
+		gain[v] = g;
+		x[v] = px;
+		y[v] = py;
+		loop[v] = l;
+		++generation[v];
+
+		if(a >= AUDIBLE) {
+			int s = freeSource(p, false);
+			if(s != -1) {
+				start(v, s, 0);
+			} else if(!l) {
+				active[v] = false;
+				++skipped;
+				return -1;
+			}
+		}
+		return ((generation[v] & 0xffff) << 16) | v;
+	}
+
+	/**
+	 * plays a clip with no position, always full volume
+	 */
+	public int play(int c, int p, float g) {
+		return play(c, p, centerX(), centerY(), g, false);
+	}
+
+	/**
+	 * stops a voice, handles that already finished are ignored
+	 *
+	 * @param h - the handle from play
+	 */
+	public void stop(int h) {
+		int v = h & 0xffff;
+		if(v < active.length && active[v] && (generation[v] & 0xffff) == (h >>> 16)) {
+			end(v);
+		}
+	}
+
+	/**
+	 * moves a voice, for sounds attached to something moving
+	 */
+	public void move(int h, float px, float py) {
+		int v = h & 0xffff;
+		if(v < active.length && active[v] && (generation[v] & 0xffff) == (h >>> 16)) {
+			x[v] = px;
+			y[v] = py;
+		}
+	}
+
+	/**
+	 * frees up finished voices, and moves sources between voices as the camera moves
+	 */
+	public void update() {
+		long now = System.nanoTime();
+		for(int v = 0; v < active.length; ++v) {
+			if(!active[v]) {
+				continue;
+			}
+			float seconds = (now - started[v]) / 1000000000f;
+			float length = clips.get(clip[v]).getSeconds();
+
+			if(source[v] != -1) {
+				int s = source[v];
+				if(!loop[v] && AL10.alGetSourcei(sources[s], AL10.AL_SOURCE_STATE) == AL10.AL_STOPPED) {
+					end(v);
+					continue;
+				}
+			} else if(!loop[v] && seconds >= length) {
+				//a virtual one shot that would be done by now
+				end(v);
+				continue;
+			}
+
+			float a = gain[v] * attenuation(x[v], y[v]);
+			if(source[v] != -1) {
+				if(a < AUDIBLE) {
+					//too far away, let someone else use the source
+					release(v);
+				} else {
+					place(v, a);
+				}
+			} else if(a >= AUDIBLE) {
+				//only from something less important, or two loops could keep stealing from each other
+				int s = freeSource(priority[v], true);
+				if(s != -1) {
+					//pick up where it would have been
+					start(v, s, loop[v] ? seconds % length : seconds);
+				}
+			}
+		}
+	}
+
+	private void start(int v, int s, float offset) {
+		int id = sources[s];
+		source[v] = s;
+		sourceVoice[s] = v;
+		AL10.alSourcei(id, AL10.AL_BUFFER, clips.get(clip[v]).getId());
+		AL10.alSourcei(id, AL10.AL_LOOPING, loop[v] ? 1 : 0);
+		AL10.alSourcef(id, AL11.AL_SEC_OFFSET, offset);
+		place(v, gain[v] * attenuation(x[v], y[v]));
+		AL10.alSourcePlay(id);
+	}
+
+	private void place(int v, float a) {
+		int id = sources[source[v]];
+		AL10.alSourcef(id, AL10.AL_GAIN, a);
+		float pan = Math.max(-1, Math.min(1, (x[v] - centerX()) / far));
+		AL10.alSource3f(id, AL10.AL_POSITION, pan, 0, -1);
+	}
+
+	/**
+	 * takes the source away from a voice, the voice keeps going virtually
+	 */
+	private void release(int v) {
+		int s = source[v];
+		AL10.alSourceStop(sources[s]);
+		AL10.alSourcei(sources[s], AL10.AL_BUFFER, 0);
+		sourceVoice[s] = -1;
+		source[v] = -1;
+	}
+
+	private void end(int v) {
+		if(source[v] != -1) {
+			release(v);
+		}
+		active[v] = false;
+	}
+
+	/**
+	 * finds a voice slot, stealing the lowest priority oldest one if they're all taken
+	 */
+	private int freeVoice(int p) {
+		int worst = -1;
+		for(int v = 0; v < active.length; ++v) {
+			if(!active[v]) {
+				return v;
+			}
+			if(worst == -1 || worse(v, worst)) {
+				worst = v;
+			}
+		}
+		if(priority[worst] > p) {
+			return -1;
+		}
+		++stolen;
+		end(worst);
+		return worst;
+	}
+
+	/**
+	 * finds a source, stealing one from the lowest priority oldest voice if they're all taken.
+	 * the voice it's stolen from goes virtual if it loops
+	 * 
+	 * @param p - priority of the voice that wants it
+	 * @param lower - only steal from voices with a lower priority, not the same
+	 */
+	private int freeSource(int p, boolean lower) {
+		int worst = -1;
+		for(int s = 0; s < sources.length; ++s) {
+			int v = sourceVoice[s];
+			if(v == -1) {
+				return s;
+			}
+			if(worst == -1 || worse(v, sourceVoice[worst])) {
+				worst = s;
+			}
+		}
+		int v = sourceVoice[worst];
+		if(priority[v] > p || (lower && priority[v] == p)) {
+			return -1;
+		}
+		++stolen;
+		if(loop[v]) {
+			release(v);
+		} else {
+			end(v);
+		}
+		return worst;
+	}
+
+	/**
+	 * @return whether voice a should go before voice b
+	 */
+	private boolean worse(int a, int b) {
+		if(priority[a] != priority[b]) {
+			return priority[a] < priority[b];
+		}
+		return started[a] < started[b];
+	}
+
+	private float attenuation(float px, float py) {
+		float dx = px - centerX();
+		float dy = py - centerY();
+		float d = (float)Math.sqrt(dx * dx + dy * dy);
+		if(d <= near) {
+			return 1;
+		}
+		if(d >= far) {
+			return 0;
+		}
+		return 1 - (d - near) / (far - near);
+	}
+
+	private float centerX() {
+		Transform t = camera.getTransform();
+		return t.x + t.getWidth() / 2;
+	}
+
+	private float centerY() {
+		Transform t = camera.getTransform();
+		return t.y + t.getHeight() / 2;
+	}
+
+	/**
+	 * @return how many voices have a real source right now
+	 */
+	public int getPlaying() {
+		int n = 0;
+		for(int v : sourceVoice) {
+			if(v != -1) {
+				++n;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * @return how many voices are going without a source
+	 */
+	public int getVirtual() {
+		int n = 0;
+		for(int v = 0; v < active.length; ++v) {
+			if(active[v] && source[v] == -1) {
+				++n;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * @return how many times a voice or source was taken from something else
+	 */
+	public int getStolen() {
+		return stolen;
+	}
+
+	/**
+	 * @return how many plays never got a voice
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * deletes the sources, the clips belong to whoever added them
+	 */
+	public void destroy() {
+		for(int s : sources) {
+			AL10.alDeleteSources(s);
+		}
+	}
+
+}
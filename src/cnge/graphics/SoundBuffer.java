@@ -0,0 +1,46 @@
+package cnge.graphics;
+
+import org.lwjgl.openal.AL10;
+
+/**
+ * decoded sound data sitting in an openal buffer.
+ * any number of sounds can play the same buffer, see {@link Sound#Sound(SoundBuffer)}
+ */
+public class SoundBuffer {
+	
+	private int buffer;
+	private int bytes;
+	private float seconds;
+	
+	public SoundBuffer(String path) {
+		buffer = AL10.alGenBuffers();
+		WaveData waveData = WaveData.create(path);
+		bytes = waveData.data.remaining();
+		seconds = (float)bytes / (waveData.samplerate * waveData.bytesPerFrame);
+		AL10.alBufferData(buffer, waveData.format, waveData.data, waveData.samplerate);
+		waveData.dispose();
+	}
+	
+	public int getId() {
+		return buffer;
+	}
+	
+	/**
+	 * @return how big the decoded sound is
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+	
+	/**
+	 * @return how long the sound is
+	 */
+	public float getSeconds() {
+		return seconds;
+	}
+	
+	public void destroy() {
+		AL10.alDeleteBuffers(buffer);
+	}
+	
+}
\ No newline at end of file
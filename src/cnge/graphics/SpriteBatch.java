@@ -0,0 +1,307 @@
+package cnge.graphics;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL11.glDrawElements;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+
+import cnge.graphics.texture.Texture;
+
+/**
+ * collects textured quads into one dynamic vertex buffer so a whole bunch of them
+ * can go out in a single draw call.
+ *
+ * the batch flushes whenever the texture or the shader changes, or when it fills up.
+ *
+ * shaders used with the batch take vertices at location 0, tex coords at location 1,
+ * and a color at location 2, see res/cnge/shaders/batch/batch.vs
+ */
+public class SpriteBatch {
+
+	/**
+	 * floats per vertex, position (3) tex coords (2) color (4)
+	 */
+	static final int VERTEX_SIZE = 9;
+	static final int QUAD_FLOATS = VERTEX_SIZE * 4;
+	static final int QUAD_INDICES = 6;
+
+	private int vao;
+	private int vbo;
+	private int ibo;
+
+	private int capacity;
+	private int quads;
+	private FloatBuffer vertices;
+
+	private Shader defaultShader;
+	private Shader shader;
+	private Texture texture;
+	private Matrix4f projection;
+
+	private boolean drawing;
+
+	/**
+	 * when not null, quads go into this mesh instead of being drawn
+	 */
+	private BatchMesh recording;
+	private int segmentStart;
+
+	/**
+	 * how many draw calls the batch has made since the last begin
+	 */
+	private int flushes;
+
+	/**
+	 * creates a sprite batch
+	 *
+	 * @param s - the shader used when no other shader is set
+	 * @param c - how many quads fit in the batch before it has to flush
+	 */
+	public SpriteBatch(Shader s, int c) {
+		defaultShader = s;
+		shader = s;
+		capacity = c;
+		projection = new Matrix4f();
+		vertices = BufferUtils.createFloatBuffer(capacity * QUAD_FLOATS);
+
+		vao = glGenVertexArrays();
+		RenderState.bindVertexArray(vao);
+
+		vbo = glGenBuffers();
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glBufferData(GL_ARRAY_BUFFER, capacity * QUAD_FLOATS * 4, GL_STREAM_DRAW);
+
+		setupAttribs();
+
+		/*
+		 * every quad is connected the same way as the rect shape,
+		 * so the indices never change
+		 */
+		IntBuffer indices = BufferUtils.createIntBuffer(capacity * QUAD_INDICES);
+		for(int i = 0; i < capacity; ++i) {
+			int v = i * 4;
+			indices.put(v    ).put(v + 1).put(v + 3);
+			indices.put(v + 1).put(v + 2).put(v + 3);
+		}
+		indices.flip();
+
+		ibo = glGenBuffers();
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ibo);
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, indices, GL_STATIC_DRAW);
+	}
+
+	/**
+	 * points the vertex attributes at the currently bound array buffer using the batch layout
+	 */
+	static void setupAttribs() {
+		int stride = VERTEX_SIZE * 4;
+		glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
+		glVertexAttribPointer(1, 2, GL_FLOAT, false, stride, 3 * 4);
+		glVertexAttribPointer(2, 4, GL_FLOAT, false, stride, 5 * 4);
+		//the enabled arrays are stored in the vao, so we only have to do this once
+		glEnableVertexAttribArray(0);
+		glEnableVertexAttribArray(1);
+		glEnableVertexAttribArray(2);
+	}
+
+	/**
+	 * makes an empty mesh that can be recorded into with {@link #record(BatchMesh)}
+	 *
+	 * @return the new mesh
+	 */
+	public BatchMesh createMesh() {
+		return new BatchMesh(ibo);
+	}
+
+	/**
+	 * starts collecting quads
+	 *
+	 * @param p - the projection (or full mvp) matrix the quads will be drawn with
+	 */
+	public void begin(Matrix4f p) {
+		projection.set(p);
+		shader = defaultShader;
+		texture = null;
+		quads = 0;
+		flushes = 0;
+		vertices.clear();
+		drawing = true;
+	}
+
+	/**
+	 * starts collecting quads into a mesh instead of drawing them.
+	 * the texture and shader changes are remembered by the mesh so it can draw itself later
+	 *
+	 * @param m - the mesh to record into, whatever was in it before is replaced
+	 */
+	public void record(BatchMesh m) {
+		shader = defaultShader;
+		texture = null;
+		quads = 0;
+		segmentStart = 0;
+		vertices.clear();
+		recording = m;
+		recording.clear();
+		drawing = true;
+	}
+
+	/**
+	 * finishes recording and uploads the mesh to the gpu
+	 */
+	public void endRecord() {
+		flush();
+		vertices.flip();
+		recording.upload(vertices, quads);
+		vertices.clear();
+		quads = 0;
+		recording = null;
+		drawing = false;
+	}
+
+	/**
+	 * changes the shader for the quads after this.
+	 * the shader has to use the batch's vertex layout
+	 *
+	 * @param s - the new shader, null for the default one
+	 */
+	public void setShader(Shader s) {
+		if(s == null) {
+			s = defaultShader;
+		}
+		if(s != shader) {
+			flush();
+			shader = s;
+		}
+	}
+
+	/**
+	 * adds one quad to the batch
+	 *
+	 * the frame works the same as the tile shader's frame uniform,
+	 * the tex coords of the quad are multiplied by x and y then offset by z and w
+	 *
+	 * @param tex - the texture for the quad
+	 * @param left - left side in the projection's coordinates
+	 * @param right - right side
+	 * @param up - top side
+	 * @param down - bottom side
+	 * @param x - frame width
+	 * @param y - frame height
+	 * @param z - frame x offset
+	 * @param w - frame y offset
+	 * @param r - red tint
+	 * @param g - green tint
+	 * @param b - blue tint
+	 * @param a - alpha tint
+	 */
+	public void draw(Texture tex, float left, float right, float up, float down, float x, float y, float z, float w, float r, float g, float b, float a) {
+		if(tex != texture) {
+			flush();
+			texture = tex;
+		}
+		if(quads == capacity) {
+			if(recording != null) {
+				throw new IllegalStateException("mesh has more than " + capacity + " quads, it won't fit in the batch");
+			}
+			flush();
+		}
+
+		float u0 = z;
+		float u1 = x + z;
+		float v0 = w;
+		float v1 = y + w;
+
+		vertices.put(right).put(up  ).put(0).put(u1).put(v0).put(r).put(g).put(b).put(a);
+		vertices.put(right).put(down).put(0).put(u1).put(v1).put(r).put(g).put(b).put(a);
+		vertices.put(left ).put(down).put(0).put(u0).put(v1).put(r).put(g).put(b).put(a);
+		vertices.put(left ).put(up  ).put(0).put(u0).put(v0).put(r).put(g).put(b).put(a);
+
+		++quads;
+	}
+
+	/**
+	 * sends everything collected so far to the gpu in one draw
+	 */
+	public void flush() {
+		if(recording != null) {
+			//while recording nothing gets drawn, we just start a new part of the mesh
+			if(quads > segmentStart) {
+				recording.addSegment(texture, shader, segmentStart, quads - segmentStart);
+				segmentStart = quads;
+			}
+			return;
+		}
+		if(quads == 0) {
+			return;
+		}
+		vertices.flip();
+
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		//orphan the old storage so we don't wait on the last draw that used it
+		glBufferData(GL_ARRAY_BUFFER, capacity * QUAD_FLOATS * 4, GL_STREAM_DRAW);
+		glBufferSubData(GL_ARRAY_BUFFER, 0, vertices);
+
+		texture.bind();
+
+		shader.enable();
+		shader.setMvp(projection);
+
+		RenderState.bindVertexArray(vao);
+		glDrawElements(GL_TRIANGLES, quads * QUAD_INDICES, GL_UNSIGNED_INT, 0);
+		RenderState.countDraw();
+
+		vertices.clear();
+		quads = 0;
+		++flushes;
+	}
+
+	/**
+	 * flushes what's left and stops the batch
+	 */
+	public void end() {
+		flush();
+		drawing = false;
+
+		Shader.disable();
+
+		Texture.unbind();
+	}
+
+	public boolean isDrawing() {
+		return drawing;
+	}
+
+	/**
+	 * @return how many draw calls were made since the last begin
+	 */
+	public int getFlushes() {
+		return flushes;
+	}
+
+	public void destroy() {
+		glDeleteBuffers(vbo);
+		glDeleteBuffers(ibo);
+		glDeleteVertexArrays(vao);
+		RenderState.deleteVertexArray(vao);
+	}
+
+}
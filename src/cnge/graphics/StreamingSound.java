@@ -0,0 +1,386 @@
+package cnge.graphics;
+
+import static org.lwjgl.stb.STBVorbis.stb_vorbis_close;
+import static org.lwjgl.stb.STBVorbis.stb_vorbis_get_info;
+import static org.lwjgl.stb.STBVorbis.stb_vorbis_get_samples_short_interleaved;
+import static org.lwjgl.stb.STBVorbis.stb_vorbis_open_memory;
+import static org.lwjgl.stb.STBVorbis.stb_vorbis_seek_start;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.openal.AL10;
+import org.lwjgl.stb.STBVorbisInfo;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * a sound that's decoded a little at a time while it plays, for music and other long sounds.
+ *
+ * the file is memory mapped, wav data goes straight from the mapping into openal
+ * and ogg vorbis is decoded by stb into one small chunk buffer.
+ * a few openal buffers are queued on the source, and a background thread refills them as they finish,
+ * so the memory used doesn't depend on how long the sound is
+ */
+public class StreamingSound {
+
+	/**
+	 * how many openal buffers are queued at once
+	 */
+	public static final int BUFFERS = 4;
+
+	/**
+	 * how many sample frames go in each buffer
+	 */
+	public static final int CHUNK_FRAMES = 8192;
+
+	/*
+	 * one thread keeps every stream fed
+	 */
+	private static final CopyOnWriteArrayList<StreamingSound> streams = new CopyOnWriteArrayList<StreamingSound>();
+	private static Thread streamer;
+
+	private Decoder decoder;
+	private int source;
+	private int[] buffers;
+	private int format;
+
+	private boolean playing;
+	private boolean loop;
+	//the decoder ran out, just waiting for the queued buffers to finish
+	private boolean draining;
+
+	/**
+	 * opens a stream, .ogg files are decoded as ogg vorbis and everything else has to be pcm wav
+	 *
+	 * @param path - path to the sound file
+	 */
+	public StreamingSound(String path) {
+		try {
+			if(path.toLowerCase().endsWith(".ogg")) {
+				decoder = new OggDecoder(path);
+			} else {
+				decoder = new WavDecoder(path);
+			}
+		} catch(IOException ex) {
+			throw new RuntimeException("couldn't open sound stream " + path, ex);
+		}
+		format = WaveData.getOpenAlFormat(decoder.channels(), decoder.bits());
+
+		source = AL10.alGenSources();
+		AL10.alSourcef(source, AL10.AL_GAIN, 1);
+		AL10.alSourcef(source, AL10.AL_PITCH, 1);
+		buffers = new int[BUFFERS];
+		for(int i = 0; i < BUFFERS; ++i) {
+			buffers[i] = AL10.alGenBuffers();
+		}
+	}
+
+	/**
+	 * starts the stream over from the beginning
+	 *
+	 * @param l - whether to go back to the start when it ends
+	 */
+	public synchronized void play(boolean l) {
+		halt();
+		loop = l;
+		draining = false;
+		decoder.rewind();
+
+		int queued = 0;
+		for(int b : buffers) {
+			if(!fill(b)) {
+				break;
+			}
+			AL10.alSourceQueueBuffers(source, b);
+			++queued;
+		}
+		if(queued == 0) {
+			return;
+		}
+		AL10.alSourcePlay(source);
+		playing = true;
+
+		streams.addIfAbsent(this);
+		startStreamer();
+	}
+
+	public synchronized void stop() {
+		halt();
+	}
+
+	public void setVolume(float volume) {
+		AL10.alSourcef(source, AL10.AL_GAIN, volume);
+	}
+
+	public boolean isPlaying() {
+		return playing;
+	}
+
+	/**
+	 * stops the source and takes all the buffers off of it
+	 */
+	private void halt() {
+		playing = false;
+		streams.remove(this);
+		AL10.alSourceStop(source);
+		//stopping marks every queued buffer as processed
+		int queued = AL10.alGetSourcei(source, AL10.AL_BUFFERS_QUEUED);
+		for(int i = 0; i < queued; ++i) {
+			AL10.alSourceUnqueueBuffers(source);
+		}
+	}
+
+	/**
+	 * puts the next chunk of the sound into a buffer
+	 *
+	 * @return false if there's nothing left
+	 */
+	private boolean fill(int buffer) {
+		ByteBuffer pcm = decoder.read();
+		if(pcm == null && loop) {
+			decoder.rewind();
+			pcm = decoder.read();
+		}
+		if(pcm == null) {
+			return false;
+		}
+		AL10.alBufferData(buffer, format, pcm, decoder.rate());
+		return true;
+	}
+
+	/**
+	 * refills whatever buffers finished since last time, the streamer thread calls this
+	 */
+	private synchronized void service() {
+		if(!playing) {
+			return;
+		}
+		int processed = AL10.alGetSourcei(source, AL10.AL_BUFFERS_PROCESSED);
+		for(int i = 0; i < processed; ++i) {
+			int b = AL10.alSourceUnqueueBuffers(source);
+			if(!draining && fill(b)) {
+				AL10.alSourceQueueBuffers(source, b);
+			} else {
+				draining = true;
+			}
+		}
+
+		int queued = AL10.alGetSourcei(source, AL10.AL_BUFFERS_QUEUED);
+		if(AL10.alGetSourcei(source, AL10.AL_SOURCE_STATE) != AL10.AL_PLAYING) {
+			if(queued > 0) {
+				//we fell behind and it ran dry, get it going again
+				AL10.alSourcePlay(source);
+			} else {
+				playing = false;
+				streams.remove(this);
+			}
+		}
+	}
+
+	private static synchronized void startStreamer() {
+		if(streamer != null) {
+			return;
+		}
+		streamer = new Thread(() -> {
+			while(true) {
+				for(StreamingSound s : streams) {
+					s.service();
+				}
+				try {
+					Thread.sleep(10);
+				} catch(InterruptedException ex) {
+					return;
+				}
+			}
+		}, "sound streamer");
+		streamer.setDaemon(true);
+		streamer.start();
+	}
+
+	public synchronized void destroy() {
+		halt();
+		AL10.alDeleteSources(source);
+		for(int b : buffers) {
+			AL10.alDeleteBuffers(b);
+		}
+		decoder.close();
+	}
+
+	/**
+	 * something that can hand out a sound a chunk at a time
+	 */
+	private interface Decoder {
+		int channels();
+		int bits();
+		int rate();
+		/**
+		 * @return the next chunk of pcm, or null at the end. only good until the next read
+		 */
+		ByteBuffer read();
+		void rewind();
+		void close();
+	}
+
+	private static MappedByteBuffer map(String path) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(path, "r"); FileChannel channel = file.getChannel()) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * pcm wav, the chunks are just slices of the mapped file
+	 */
+	private static class WavDecoder implements Decoder {
+
+		private MappedByteBuffer file;
+		private int channels;
+		private int bits;
+		private int rate;
+		private int chunkBytes;
+
+		private int dataStart;
+		private int dataEnd;
+		private int position;
+
+		WavDecoder(String path) throws IOException {
+			file = map(path);
+			file.order(ByteOrder.LITTLE_ENDIAN);
+			if(file.getInt(0) != 0x46464952 || file.getInt(8) != 0x45564157) {
+				throw new IOException(path + " isn't a wav file");
+			}
+			//go through the chunks for the format and the data
+			int at = 12;
+			int blockAlign = 0;
+			while(at + 8 <= file.limit()) {
+				int id = file.getInt(at);
+				int size = file.getInt(at + 4);
+				if(id == 0x20746d66) {
+					if(file.getShort(at + 8) != 1) {
+						throw new IOException(path + " isn't plain pcm");
+					}
+					channels = file.getShort(at + 10);
+					rate = file.getInt(at + 12);
+					blockAlign = file.getShort(at + 20);
+					bits = file.getShort(at + 22);
+				} else if(id == 0x61746164) {
+					dataStart = at + 8;
+					dataEnd = Math.min(dataStart + size, file.limit());
+					break;
+				}
+				//chunks are padded to an even size
+				at += 8 + size + (size & 1);
+			}
+			if(blockAlign == 0 || dataEnd == 0) {
+				throw new IOException(path + " has no format or no data");
+			}
+			chunkBytes = CHUNK_FRAMES * blockAlign;
+			position = dataStart;
+		}
+
+		public int channels() {
+			return channels;
+		}
+
+		public int bits() {
+			return bits;
+		}
+
+		public int rate() {
+			return rate;
+		}
+
+		public ByteBuffer read() {
+			if(position >= dataEnd) {
+				return null;
+			}
+			int end = Math.min(position + chunkBytes, dataEnd);
+			ByteBuffer slice = file.duplicate();
+			slice.position(position).limit(end);
+			position = end;
+			return slice;
+		}
+
+		public void rewind() {
+			position = dataStart;
+		}
+
+		public void close() {
+			//the mapping goes away when it's collected
+			file = null;
+		}
+
+	}
+
+	/**
+	 * ogg vorbis through stb, always 16 bit
+	 */
+	private static class OggDecoder implements Decoder {
+
+		//stb reads straight out of this, so it has to stay around
+		private MappedByteBuffer file;
+		private long handle;
+		private int channels;
+		private int rate;
+
+		private ByteBuffer chunk;
+		private ShortBuffer samples;
+
+		OggDecoder(String path) throws IOException {
+			file = map(path);
+			try(MemoryStack stack = MemoryStack.stackPush()) {
+				IntBuffer error = stack.mallocInt(1);
+				handle = stb_vorbis_open_memory(file, error, null);
+				if(handle == 0) {
+					throw new IOException("stb couldn't open " + path + ", error " + error.get(0));
+				}
+				STBVorbisInfo info = STBVorbisInfo.mallocStack(stack);
+				stb_vorbis_get_info(handle, info);
+				channels = info.channels();
+				rate = info.sample_rate();
+			}
+			chunk = BufferUtils.createByteBuffer(CHUNK_FRAMES * channels * 2);
+			samples = chunk.asShortBuffer();
+		}
+
+		public int channels() {
+			return channels;
+		}
+
+		public int bits() {
+			return 16;
+		}
+
+		public int rate() {
+			return rate;
+		}
+
+		public ByteBuffer read() {
+			samples.clear();
+			int frames = stb_vorbis_get_samples_short_interleaved(handle, channels, samples);
+			if(frames == 0) {
+				return null;
+			}
+			chunk.position(0).limit(frames * channels * 2);
+			return chunk;
+		}
+
+		public void rewind() {
+			stb_vorbis_seek_start(handle);
+		}
+
+		public void close() {
+			stb_vorbis_close(handle);
+			file = null;
+		}
+
+	}
+
+}
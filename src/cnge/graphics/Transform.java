@@ -91,6 +91,23 @@ public class Transform {
 		height = h;
 	}
 	
+	/**
+	 * sets this to somewhere in between two transforms, the size is just taken from b
+	 * 
+	 * @param a - where it was
+	 * @param b - where it is now
+	 * @param t - how far from a to b, 0 to 1
+	 */
+	public void lerp(Transform a, Transform b, float t) {
+		x = a.x + (b.x - a.x) * t;
+		y = a.y + (b.y - a.y) * t;
+		width = b.width;
+		height = b.height;
+		wScale = a.wScale + (b.wScale - a.wScale) * t;
+		hScale = a.hScale + (b.hScale - a.hScale) * t;
+		rotation = a.rotation + (b.rotation - a.rotation) * t;
+	}
+	
 	public void setTranslation(float a, float o) {
 		x = a;
 		y = o;
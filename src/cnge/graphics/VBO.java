@@ -10,10 +10,8 @@ import static org.lwjgl.opengl.GL15.glBindBuffer;
 import static org.lwjgl.opengl.GL15.glBufferData;
 import static org.lwjgl.opengl.GL15.glDeleteBuffers;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
-import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
-import static org.lwjgl.opengl.GL30.glBindVertexArray;
 import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
 import static org.lwjgl.opengl.GL30.glGenVertexArrays;
 
@@ -32,7 +30,7 @@ public class VBO {
 		numAttribs = 0;
 		
 		vao = glGenVertexArrays();
-		glBindVertexArray(vao);
+		RenderState.bindVertexArray(vao);
 		addAttrib(vertices, 3);
 		
 		ibo = glGenBuffers();
@@ -47,21 +45,19 @@ public class VBO {
 	public void addAttrib(float[] f, int s) {
 		int vbo = glGenBuffers();
 		attribs[numAttribs] = vbo;
+		RenderState.bindVertexArray(vao);
 		glBindBuffer(GL_ARRAY_BUFFER, vbo);
 		glBufferData(GL_ARRAY_BUFFER, f, GL_STATIC_DRAW);
 		glVertexAttribPointer(numAttribs, s, GL_FLOAT, false, 0, 0);
+		//the vao remembers this, so it doesn't have to happen every render
+		glEnableVertexAttribArray(numAttribs);
 		++numAttribs;
 	}
 	
 	public void render() {
-		glBindVertexArray(vao);
-		for(int i = 0; i < numAttribs; ++i) {
-			glEnableVertexAttribArray(i);
-		}
+		RenderState.bindVertexArray(vao);
 		glDrawElements(mode, count, GL_UNSIGNED_INT, 0);
-		for(int i = 0; i < numAttribs; ++i) {
-			glDisableVertexAttribArray(i);
-		}
+		RenderState.countDraw();
 	}
 	
 	public void destroy() {
@@ -70,6 +66,7 @@ public class VBO {
 		}
 		glDeleteBuffers(ibo);
 		glDeleteVertexArrays(vao);
+		RenderState.deleteVertexArray(vao);
 	}
 	
 }
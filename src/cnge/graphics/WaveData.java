@@ -77,7 +77,7 @@ public class WaveData {
 	}
  
  
-	private static int getOpenAlFormat(int channels, int bitsPerSample) {
+	static int getOpenAlFormat(int channels, int bitsPerSample) {
 		if (channels == 1) {
 			return bitsPerSample == 8 ? AL10.AL_FORMAT_MONO8 : AL10.AL_FORMAT_MONO16;
 		} else {
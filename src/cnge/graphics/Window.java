@@ -27,9 +27,11 @@ import org.lwjgl.glfw.GLFWVidMode;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL30;
 
+import cnge.core.Input;
 import cnge.core.Resizer;
+import cnge.graphics.texture.TextureLoader;
 
-public class Window {
+public class Window implements Input {
 	
 	private long window;
 	
@@ -132,43 +134,45 @@ public class Window {
 	}
 	
 	public void setIcon(String imagePath) {
+		TextureLoader.Image image = loadImage(imagePath);
+		if(image == null) {
+			return;
+		}
 		
-		GLFWImage image = Window.makeGLFWImage(imagePath);   
 		GLFWImage.Buffer buffer = GLFWImage.malloc(1);
-		buffer.put(0, image);
+		buffer.put(0, makeGLFWImage(image));
 		
 		glfwSetWindowIcon(window, buffer);
+		
+		//glfw keeps its own copy of the icon
+		buffer.free();
+		image.free();
 	}
 	
-	public static GLFWImage makeGLFWImage(String imagePath) {
-		BufferedImage b = null;
+	/**
+	 * @return the image, or null if it couldn't be loaded
+	 */
+	private static TextureLoader.Image loadImage(String imagePath) {
 		try {
-			b = ImageIO.read(new File(imagePath));
+			return TextureLoader.load(imagePath);
 		} catch (IOException ex) {
 			ex.printStackTrace();
+			return null;
 		}
-		
-		int bwi = b.getWidth();
-		int bhi = b.getHeight();
-		int len = bwi * bhi;
-		
-		int[] rgbArray = new int[len];
-		
-		System.out.println();
-		
-		b.getRGB(0, 0, bwi, bhi, rgbArray, 0, bwi);
-		
-		ByteBuffer buffer = BufferUtils.createByteBuffer(len * 4);
-		
-		for(int i = 0; i < len; ++i) {
-			int rgb = rgbArray[i];
-			buffer.put((byte)(rgb >> 16 & 0xff));
-			buffer.put((byte)(rgb >>  8 & 0xff));
-			buffer.put((byte)(rgb       & 0xff));
-			buffer.put((byte)(rgb >> 24 & 0xff));
-		}
-		
-		buffer.flip();
+	}
+	
+	/**
+	 * wraps a loaded image for glfw, for icons and cursors.
+	 * the glfw image uses the same pixels, so free the image after glfw is done with it
+	 * 
+	 * @param image - the loaded image
+	 * 
+	 * @return the glfw image
+	 */
+	public static GLFWImage makeGLFWImage(TextureLoader.Image image) {
+		int bwi = image.width;
+		int bhi = image.height;
+		ByteBuffer buffer = image.pixels;
 			
 	    // create a GLFWImage
 	    GLFWImage img= GLFWImage.create();
@@ -215,12 +219,19 @@ public class Window {
 	}
 	
 	public void setCursor(String cursorPath) {
-		GLFWImage cursorImg = makeGLFWImage(cursorPath);
+		TextureLoader.Image image = loadImage(cursorPath);
+		if(image == null) {
+			return;
+		}
+		GLFWImage cursorImg = makeGLFWImage(image);
 
 	    // create custom cursor and store its ID
 	    int hotspotX = 0;
 	    int hotspotY = 0;
 	    cursorID = GLFW.glfwCreateCursor(cursorImg, hotspotX , hotspotY);
+	    
+	    //the cursor has its own copy of the pixels
+	    image.free();
 
 	    // set current cursor
 	    glfwSetCursor(window, cursorID);
@@ -253,6 +264,13 @@ public class Window {
 		glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT);
 	}
 	
+	/**
+	 * @param v - whether swapping waits for the monitor
+	 */
+	public void setVsync(boolean v) {
+		glfwSwapInterval(v ? 1 : 0);
+	}
+	
 	public void swap() {
 		glfwSwapBuffers(window);
 	}
@@ -0,0 +1,115 @@
+package cnge.graphics.texture;
+
+import static org.lwjgl.opengl.GL11.GL_NEAREST;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ALIGNMENT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_SHORT;
+import static org.lwjgl.opengl.GL11.glDeleteTextures;
+import static org.lwjgl.opengl.GL11.glGenTextures;
+import static org.lwjgl.opengl.GL11.glPixelStorei;
+import static org.lwjgl.opengl.GL11.glTexImage2D;
+import static org.lwjgl.opengl.GL11.glTexParameteri;
+import static org.lwjgl.opengl.GL11.glTexSubImage2D;
+import static org.lwjgl.opengl.GL30.GL_R16UI;
+import static org.lwjgl.opengl.GL30.GL_RED_INTEGER;
+
+import java.nio.ShortBuffer;
+
+import org.lwjgl.BufferUtils;
+
+import cnge.graphics.RenderState;
+
+/**
+ * a texture with one unsigned 16 bit integer per texel, for sending data like a map's blocks to a shader.
+ * read it with texelFetch on a usampler2D
+ */
+public class IntTexture {
+	
+	private int id;
+	
+	private int width;
+	private int height;
+	
+	private ShortBuffer single;
+	
+	/**
+	 * creates the texture and uploads everything
+	 * 
+	 * @param w - width in texels
+	 * @param h - height in texels
+	 * @param data - row major texels, width * height of them
+	 */
+	public IntTexture(int w, int h, short[] data) {
+		width = w;
+		height = h;
+		single = BufferUtils.createShortBuffer(1);
+		
+		ShortBuffer buffer = BufferUtils.createShortBuffer(w * h);
+		buffer.put(data, 0, w * h);
+		buffer.flip();
+		
+		id = glGenTextures();
+		RenderState.bindTexture(0, id);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		//rows are 2 bytes a texel so they won't always line up on 4
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 2);
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_R16UI, width, height, 0, GL_RED_INTEGER, GL_UNSIGNED_SHORT, buffer);
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+	}
+	
+	/**
+	 * changes just one texel
+	 * 
+	 * @param x - texel x
+	 * @param y - texel y
+	 * @param v - the new value
+	 */
+	public void set(int x, int y, int v) {
+		single.put(0, (short)v);
+		RenderState.bindTexture(0, id);
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 2);
+		glTexSubImage2D(GL_TEXTURE_2D, 0, x, y, 1, 1, GL_RED_INTEGER, GL_UNSIGNED_SHORT, single);
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 4);
+	}
+	
+	/**
+	 * binds the texture to a texture unit other than the main one
+	 * 
+	 * @param unit - the texture unit, 0 based
+	 */
+	public void bind(int unit) {
+		RenderState.bindTexture(unit, id);
+	}
+	
+	public static void unbind(int unit) {
+		RenderState.releaseTexture(unit);
+	}
+	
+	public void destroy() {
+		glDeleteTextures(id);
+		RenderState.deleteTexture(id);
+	}
+	
+	public int getId() {
+		return id;
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+	
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * @return how many bytes the texture takes up on the gpu
+	 */
+	public int getBytes() {
+		return width * height * 2;
+	}
+	
+}
\ No newline at end of file
@@ -1,16 +1,14 @@
 package cnge.graphics.texture;
-import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-import javax.imageio.ImageIO;
-
 import static org.lwjgl.opengl.GL11.*;
 
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL12;
 
+import cnge.graphics.RenderState;
+
 public class Texture {
 	
 	private int id;
@@ -18,6 +16,11 @@ public class Texture {
 	private int width;
 	private int height;
 	
+	/**
+	 * whether the gl texture really belongs to some other texture, like an atlas page
+	 */
+	private boolean shared;
+	
 	/**
 	 * the ultimate texture contructor, with full customizablility
 	 * 
@@ -34,33 +37,26 @@ public class Texture {
 	}
 	
 	protected void init(String p, boolean ch, boolean cv, boolean n) {
-		BufferedImage b = null;
+		TextureLoader.Image image = null;
 		try {
-			b = ImageIO.read(new File(p));
+			image = TextureLoader.load(p);
 		}catch(IOException ex) {
 			ex.printStackTrace();
 			System.err.println("TEXTURE NOT FOUND, resolving to placeholder");
 			try {
-				b = ImageIO.read(new File("res/cnge/missing.png"));
+				image = TextureLoader.load("res/cnge/missing.png");
 			} catch (IOException ex2) {
 				ex2.printStackTrace();
 				System.err.println("SOMETHING WENT TERRIBLY, TERRIBLY WRONG");
 			}
 		}
-		width = b.getWidth();
-		height = b.getHeight();
-		int[] pixels = b.getRGB(0, 0, width, height, null, 0, width);
-		ByteBuffer buffer = BufferUtils.createByteBuffer(width*height*4);
-		for(int i = 0; i < height; ++i) {
-			for(int j = 0; j < width; ++j) {
-				int pixel = pixels[i*width+j];
-				buffer.put((byte)((pixel >> 16) & 0xff));
-				buffer.put((byte)((pixel >>  8) & 0xff));
-				buffer.put((byte)((pixel      ) & 0xff));
-				buffer.put((byte)((pixel >> 24) & 0xff));
-			}
-		}
-		buffer.flip();
+		width = image.width;
+		height = image.height;
+		upload(image.pixels, ch, cv, n);
+		image.free();
+	}
+	
+	private void upload(ByteBuffer buffer, boolean ch, boolean cv, boolean n) {
 		id = glGenTextures();
 		bind();
 		if(ch) {
@@ -79,6 +75,44 @@ public class Texture {
 		glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buffer);
 		unbind();
 	}
+	
+	/**
+	 * create a texture from rgba pixels that are already in a buffer
+	 * 
+	 * @param w - width in pixels
+	 * @param h - height in pixels
+	 * @param rgba - the pixels, 4 bytes each, ready to be read
+	 * @param tp - the texture preset
+	 */
+	public Texture(int w, int h, ByteBuffer rgba, TexturePreset tp) {
+		width = w;
+		height = h;
+		upload(rgba, tp.clampHorz, tp.clampVert, tp.nearest);
+	}
+	
+	/**
+	 * a texture that is really part of another texture, it doesn't make anything in opengl.
+	 * 
+	 * @param t - the texture to share, or null to share one later with {@link #share(Texture)}
+	 */
+	protected Texture(Texture t) {
+		shared = true;
+		if(t != null) {
+			share(t);
+		}
+	}
+	
+	/**
+	 * makes this use the same opengl texture as another
+	 * 
+	 * @param t - the texture that really owns the opengl texture
+	 */
+	protected void share(Texture t) {
+		id = t.id;
+		width = t.width;
+		height = t.height;
+		shared = true;
+	}
 
 	/**
 	 * create a texture from a byte buffer
@@ -162,15 +196,23 @@ public class Texture {
     }
 	
 	public void bind() {
-		glBindTexture(GL_TEXTURE_2D, id);
+		RenderState.bindTexture(0, id);
 	}
 	
+	/**
+	 * only really unbinds if {@link RenderState#setForceUnbind(boolean)} is on
+	 */
 	public static void unbind() {
-		glBindTexture(GL_TEXTURE_2D, 0);
+		RenderState.releaseTexture(0);
 	}
 	
 	public void destroy() {
+		//the owner gets rid of it
+		if(shared) {
+			return;
+		}
 		glDeleteTextures(id);
+		RenderState.deleteTexture(id);
 	}
 	
 	public int getId() {
@@ -0,0 +1,217 @@
+package cnge.graphics.texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * packs a bunch of images into one or a few big textures (pages) when loading,
+ * so things drawn with different images can still share a texture.
+ *
+ * add all the images first, each one gives back a tile texture that works like normal once the atlas is built.
+ * every image gets its edge pixels copied out into the padding around it,
+ * so filtering at the edges doesn't pick up the image next to it.
+ *
+ * images that need to repeat (like a scrolling background) shouldn't go in an atlas
+ */
+public class TextureAtlas {
+
+	private int pageSize;
+	private int padding;
+	private TexturePreset preset;
+
+	private ArrayList<Entry> entries;
+	private ArrayList<Texture> pages;
+	//width and height of each page, worked out before the pages are made
+	private ArrayList<int[]> pageSizes;
+
+	private boolean built;
+
+	private class Entry {
+		String path;
+		TileTexture region;
+		int[] pixels;
+		int width;
+		int height;
+		int page;
+		int x;
+		int y;
+	}
+
+	/**
+	 * @param s - width and height of each page in pixels
+	 * @param p - pixels of padding around every image
+	 * @param tp - the texture preset for the pages
+	 */
+	public TextureAtlas(int s, int p, TexturePreset tp) {
+		pageSize = s;
+		padding = p;
+		preset = tp;
+		entries = new ArrayList<Entry>();
+		pages = new ArrayList<Texture>();
+		pageSizes = new ArrayList<int[]>();
+	}
+
+	/**
+	 * adds an image to the atlas, the tile texture doesn't work until {@link #build()}
+	 *
+	 * @param path - path to the image
+	 * @param fw - frames wide
+	 * @param ft - frames tall
+	 *
+	 * @return the tile texture for the image inside the atlas
+	 */
+	public TileTexture add(String path, int fw, int ft) {
+		if(built) {
+			throw new IllegalStateException("the atlas was already built, " + path + " can't be added");
+		}
+		Entry e = new Entry();
+		e.path = path;
+		e.region = new TileTexture(fw, ft);
+		entries.add(e);
+		return e.region;
+	}
+
+	public TileTexture add(String path, int fw) {
+		return add(path, fw, 1);
+	}
+
+	/**
+	 * loads every image, packs them into pages, and uploads the pages
+	 */
+	public void build() {
+		for(Entry e : entries) {
+			TextureLoader.Image image = read(e.path);
+			e.width = image.width;
+			e.height = image.height;
+			//pixels are only moved around whole, so the byte order doesn't matter
+			e.pixels = new int[e.width * e.height];
+			image.pixels.asIntBuffer().get(e.pixels);
+			image.free();
+		}
+
+		pack();
+
+		for(int p = 0; p < pageSizes.size(); ++p) {
+			int w = pageSizes.get(p)[0];
+			int h = pageSizes.get(p)[1];
+			int[] page = new int[w * h];
+			for(Entry e : entries) {
+				if(e.page == p) {
+					blit(e, page, w);
+				}
+			}
+
+			ByteBuffer buffer = BufferUtils.createByteBuffer(w * h * 4);
+			buffer.asIntBuffer().put(page);
+			Texture tex = new Texture(w, h, buffer, preset);
+			pages.add(tex);
+
+			for(Entry e : entries) {
+				if(e.page == p) {
+					e.region.place(tex, (float)e.x / w, (float)e.y / h, (float)e.width / w, (float)e.height / h);
+					//don't need these anymore
+					e.pixels = null;
+				}
+			}
+		}
+		built = true;
+	}
+
+	private TextureLoader.Image read(String path) {
+		try {
+			return TextureLoader.load(path);
+		} catch(IOException ex) {
+			ex.printStackTrace();
+			System.err.println("TEXTURE NOT FOUND, resolving to placeholder");
+			try {
+				return TextureLoader.load("res/cnge/missing.png");
+			} catch(IOException ex2) {
+				throw new RuntimeException("missing texture placeholder couldn't be loaded", ex2);
+			}
+		}
+	}
+
+	/**
+	 * shelf packing, tallest images first, each shelf is as tall as the first image on it
+	 */
+	private void pack() {
+		ArrayList<Entry> sorted = new ArrayList<Entry>(entries);
+		sorted.sort((a, b) -> b.height - a.height);
+
+		int page = -1;
+		int shelfX = 0;
+		int shelfY = 0;
+		int shelfHeight = 0;
+
+		for(Entry e : sorted) {
+			int w = e.width + padding * 2;
+			int h = e.height + padding * 2;
+
+			//too big for any page, it gets one to itself
+			if(w > pageSize || h > pageSize) {
+				e.page = pageSizes.size();
+				e.x = padding;
+				e.y = padding;
+				pageSizes.add(new int[] {w, h});
+				continue;
+			}
+
+			if(page != -1 && shelfX + w > pageSize) {
+				shelfY += shelfHeight;
+				shelfX = 0;
+				shelfHeight = 0;
+			}
+			if(page == -1 || shelfY + h > pageSize) {
+				page = pageSizes.size();
+				pageSizes.add(new int[] {pageSize, pageSize});
+				shelfX = 0;
+				shelfY = 0;
+				shelfHeight = 0;
+			}
+
+			e.page = page;
+			e.x = shelfX + padding;
+			e.y = shelfY + padding;
+			shelfX += w;
+			shelfHeight = Math.max(shelfHeight, h);
+		}
+	}
+
+	/**
+	 * copies the image into the page, and stretches its edges out into the padding
+	 */
+	private void blit(Entry e, int[] page, int pageWidth) {
+		for(int j = -padding; j < e.height + padding; ++j) {
+			int sy = Math.min(Math.max(j, 0), e.height - 1);
+			int row = (e.y + j) * pageWidth + e.x;
+			for(int i = -padding; i < e.width + padding; ++i) {
+				int sx = Math.min(Math.max(i, 0), e.width - 1);
+				page[row + i] = e.pixels[sy * e.width + sx];
+			}
+		}
+	}
+
+	/**
+	 * @return how many textures the atlas ended up using
+	 */
+	public int getPageCount() {
+		return pages.size();
+	}
+
+	public Texture getPage(int p) {
+		return pages.get(p);
+	}
+
+	/**
+	 * deletes all the pages, every tile texture from this atlas stops working
+	 */
+	public void destroy() {
+		for(Texture t : pages) {
+			t.destroy();
+		}
+	}
+
+}
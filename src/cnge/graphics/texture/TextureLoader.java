@@ -0,0 +1,137 @@
+package cnge.graphics.texture;
+
+import static org.lwjgl.stb.STBImage.stbi_failure_reason;
+import static org.lwjgl.stb.STBImage.stbi_image_free;
+import static org.lwjgl.stb.STBImage.stbi_load_from_memory;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.imageio.ImageIO;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.system.MemoryStack;
+
+/**
+ * decodes image files straight into rgba pixels that opengl can take.
+ *
+ * images go through ImageIO, converted to rgba in bulk.
+ * with -Dcnge.stb=true the file is memory mapped and decoded by stb image first, so nothing gets copied onto the java heap,
+ * and only what stb can't read goes through ImageIO.
+ * stb stays off until it's been checked against ImageIO on every platform, see game.TextureBenchmark
+ */
+public class TextureLoader {
+
+	private static boolean stb = Boolean.getBoolean("cnge.stb");
+
+	/**
+	 * decoded rgba pixels, call {@link #free()} when they're uploaded
+	 */
+	public static class Image {
+
+		public final int width;
+		public final int height;
+		/**
+		 * 4 bytes a pixel, rows top to bottom, ready to be read
+		 */
+		public final ByteBuffer pixels;
+
+		//stb's memory has to go back to stb
+		private final boolean fromStb;
+
+		private Image(int w, int h, ByteBuffer p, boolean s) {
+			width = w;
+			height = h;
+			pixels = p;
+			fromStb = s;
+		}
+
+		/**
+		 * gives back the pixel memory, don't use the pixels after this
+		 */
+		public void free() {
+			if(fromStb) {
+				stbi_image_free(pixels);
+			}
+		}
+
+	}
+
+	/**
+	 * loads an image, through ImageIO, or stb first then ImageIO if stb is turned on
+	 *
+	 * @param path - path to the image file
+	 *
+	 * @return the decoded image
+	 *
+	 * @throws IOException if the file can't be read by either
+	 */
+	public static Image load(String path) throws IOException {
+		Image i = stb ? loadStb(path) : null;
+		if(i == null) {
+			i = loadImageIO(path);
+		}
+		return i;
+	}
+
+	/**
+	 * @param s - whether {@link #load(String)} tries stb first
+	 */
+	public static void setStb(boolean s) {
+		stb = s;
+	}
+
+	/**
+	 * @return the image, or null if stb couldn't decode it
+	 *
+	 * @throws IOException if the file can't be opened
+	 */
+	public static Image loadStb(String path) throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(path, "r"); FileChannel channel = file.getChannel()) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			try(MemoryStack stack = MemoryStack.stackPush()) {
+				IntBuffer w = stack.mallocInt(1);
+				IntBuffer h = stack.mallocInt(1);
+				IntBuffer comp = stack.mallocInt(1);
+				ByteBuffer pixels = stbi_load_from_memory(mapped, w, h, comp, 4);
+				if(pixels == null) {
+					System.err.println("stb couldn't load " + path + ", " + stbi_failure_reason());
+					return null;
+				}
+				return new Image(w.get(0), h.get(0), pixels, true);
+			}
+		}
+	}
+
+	/**
+	 * the slow way, through a BufferedImage, but it still converts all the pixels in one go
+	 *
+	 * @throws IOException if the file can't be read
+	 */
+	public static Image loadImageIO(String path) throws IOException {
+		BufferedImage b = ImageIO.read(new File(path));
+		if(b == null) {
+			throw new IOException("no image reader for " + path);
+		}
+		int w = b.getWidth();
+		int h = b.getHeight();
+		int[] argb = b.getRGB(0, 0, w, h, null, 0, w);
+		for(int i = 0; i < argb.length; ++i) {
+			int p = argb[i];
+			argb[i] = (p << 8) | (p >>> 24);
+		}
+		ByteBuffer pixels = BufferUtils.createByteBuffer(w * h * 4);
+		//big endian so each int goes out r g b a
+		pixels.order(ByteOrder.BIG_ENDIAN).asIntBuffer().put(argb);
+		pixels.order(ByteOrder.nativeOrder());
+		return new Image(w, h, pixels, false);
+	}
+
+}
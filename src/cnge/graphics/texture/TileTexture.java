@@ -5,6 +5,44 @@ public class TileTexture extends Texture {
 	private float frameWidth;
 	private float frameHeight;
 	
+	/*
+	 * where the frames start, not 0 when this is part of an atlas
+	 */
+	private float originX;
+	private float originY;
+	
+	private int framesWide;
+	private int framesTall;
+	
+	/**
+	 * a tile texture that gets its place in an atlas later, only the atlas makes these
+	 * 
+	 * @param fw - frames wide
+	 * @param ft - frames tall
+	 */
+	TileTexture(int fw, int ft) {
+		super((Texture)null);
+		framesWide = fw;
+		framesTall = ft;
+	}
+	
+	/**
+	 * puts this tile texture somewhere inside an atlas page
+	 * 
+	 * @param page - the atlas page it was packed into
+	 * @param x - left of the region in the page, 0 to 1
+	 * @param y - top of the region in the page, 0 to 1
+	 * @param w - width of the region in the page, 0 to 1
+	 * @param h - height of the region in the page, 0 to 1
+	 */
+	void place(Texture page, float x, float y, float w, float h) {
+		share(page);
+		originX = x;
+		originY = y;
+		frameWidth = w / framesWide;
+		frameHeight = h / framesTall;
+	}
+	
 	public TileTexture(String path, int fw, int ft, TexturePreset tp) {
 		init(path, tp.clampHorz, tp.clampVert, tp.nearest);
 		frameWidth = 1f/fw;
@@ -38,15 +76,15 @@ public class TileTexture extends Texture {
 	}
 	
 	public float getZ(int frame) {
-		return frame*frameWidth;
+		return originX + frame*frameWidth;
 	}
 	
 	public float getW(int frame) {
-		return frame*frameHeight;
+		return originY + frame*frameHeight;
 	}
 	
 	public float getW() {
-		return 0;
+		return originY;
 	}
 	
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package game;
+
+import cnge.core.Base;
+import cnge.core.BasePreset;
+import cnge.core.ScriptedInput;
+import game.scenes.game.GameAssets;
+import game.scenes.game.GameScene;
+import game.scenes.game.SparkLevel;
+
+/**
+ * compiles the game's levels ahead of time, so the first load doesn't have to decode the images either.
+ * run it again whenever a level image or a block set changes
+ */
+public class LevelBaker {
+
+	public static void main(String[] args) throws Exception {
+		//loading the game scene is what makes the block sets and levels
+		SparkBase base = new SparkBase(new BasePreset(Base.ASPECT_FRAMER, BasePreset.UNIT_SCREEN_PIXELS, 512, 288, 10), new ScriptedInput());
+		base.simulate(new GameScene(), 0);
+
+		SparkLevel[] levels = {GameAssets.level1};
+		for(SparkLevel l : levels) {
+			l.bake();
+			System.out.println("baked " + l.getCompiledPath());
+		}
+	}
+
+}
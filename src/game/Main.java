@@ -46,7 +46,7 @@ public class Main {
 		
 		TexturePreset.setDefaults(false, false, true);
 		
-		SparkBase base = new SparkBase(window, new BasePreset(Base.ASPECT_FRAMER, BasePreset.UNIT_SCREEN_PIXELS, 512, 288, 10));
+		SparkBase base = new SparkBase(window, new BasePreset(Base.ASPECT_FRAMER, BasePreset.UNIT_SCREEN_PIXELS, 512, 288, 10).fixedStep(120, 8));
 		
 		base.start(new GameScene());
 	}
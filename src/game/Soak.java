@@ -0,0 +1,43 @@
+package game;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_D;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_W;
+
+import cnge.core.Base;
+import cnge.core.BasePreset;
+import cnge.core.ScriptedInput;
+import cnge.graphics.Transform;
+import game.scenes.game.GameAssets;
+import game.scenes.game.GameScene;
+
+/**
+ * runs the game scene with no window, holding right and jumping every so often,
+ * and prints how many updates a second the simulation gets through and where the player ends up
+ */
+public class Soak {
+
+	public static final int TICK_RATE = 120;
+
+	public static void main(String[] args) {
+		long ticks = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+
+		ScriptedInput script = new ScriptedInput();
+		//the countdown takes 3 seconds, then run right the whole way
+		script.hold(GLFW_KEY_D, 3 * TICK_RATE, ticks);
+		for(long t = 3 * TICK_RATE; t < ticks; t += TICK_RATE) {
+			script.hold(GLFW_KEY_W, t, t + TICK_RATE / 4);
+		}
+
+		SparkBase base = new SparkBase(new BasePreset(Base.ASPECT_FRAMER, BasePreset.UNIT_SCREEN_PIXELS, 512, 288, 10).fixedStep(TICK_RATE, 8), script);
+		double rate = base.simulate(new GameScene(), ticks);
+
+		System.out.printf("%d updates, %.0f updates/second%n", base.getSimulated(), rate);
+		if(GameAssets.player != null) {
+			Transform t = GameAssets.player.getTransform();
+			System.out.printf("player at %.2f, %.2f%n", t.x, t.y);
+		} else {
+			System.out.println("player is dead");
+		}
+	}
+
+}
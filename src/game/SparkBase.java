@@ -4,6 +4,7 @@ package game;
 
 import cnge.core.Base;
 import cnge.core.BasePreset;
+import cnge.core.Input;
 
 import cnge.graphics.Window;
 
@@ -17,4 +18,11 @@ public class SparkBase extends Base {
 		loadLoadScreen(loadScreen);
 	}
 	
+	/**
+	 * no window, for running the game headless
+	 */
+	public SparkBase(BasePreset set, Input in) {
+		super(set, in);
+	}
+	
 }
\ No newline at end of file
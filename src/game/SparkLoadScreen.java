@@ -2,6 +2,8 @@ package game;
 
 import static org.lwjgl.opengl.GL11.glClearColor;
 
+import org.joml.Matrix4f;
+
 import cnge.core.LoadScreen;
 import cnge.graphics.Camera;
 import cnge.graphics.Shader;
@@ -14,6 +16,7 @@ public class SparkLoadScreen extends LoadScreen {
 
 	RectShape rect;
 	ColorShader shader;
+	Matrix4f mvp = new Matrix4f();
 	
 	public SparkLoadScreen() {
 		rect = new RectShape();
@@ -36,23 +39,23 @@ public class SparkLoadScreen extends LoadScreen {
 		float w = 192 * along;
 		float h = 64;
 		
-		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(l, u, w, h)));
+		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(l, u, w, h, mvp), mvp));
 		rect.render();
 		
 		//top
-		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 112, 192, 4)));
+		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 112, 192, 4, mvp), mvp));
 		rect.render();
 		
 		//right
-		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(348, 112, 4, 64)));
+		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(348, 112, 4, 64, mvp), mvp));
 		rect.render();
 		
 		//down
-		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 172, 192, 4)));
+		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 172, 192, 4, mvp), mvp));
 		rect.render();
 		
 		//left
-		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 112, 4, 64)));
+		shader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(160, 112, 4, 64, mvp), mvp));
 		rect.render();
 		
 		Shader.disable();
@@ -0,0 +1,119 @@
+package game;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+import org.lwjgl.BufferUtils;
+
+import cnge.graphics.texture.TextureLoader;
+
+/**
+ * times decoding every texture the game scene loads, the old way against the texture loader.
+ * only decoding, nothing goes to opengl so it doesn't need a window.
+ * first it checks that stb decodes every texture to the same bytes ImageIO does,
+ * that has to pass on a platform before stb gets turned on there
+ */
+public class TextureBenchmark {
+
+	/**
+	 * the same images GameAssets loads
+	 */
+	public static final String[] TEXTURES = {
+		"res/textures/blocks.png",
+		"res/textures/sparky.png",
+		"res/textures/battery.png",
+		"res/textures/countdown.png",
+		"res/textures/sky.png"
+	};
+
+	private static final int WARMUP = 20;
+	private static final int RUNS = 100;
+
+	private interface Loader {
+		void load(String path) throws IOException;
+	}
+
+	public static void main(String[] args) throws IOException {
+		for(String p : TEXTURES) {
+			compare(p);
+		}
+		time("ImageIO, pixel by pixel", TextureBenchmark::legacy);
+		time("ImageIO, bulk", (p) -> TextureLoader.loadImageIO(p).free());
+		time("stb, mapped", TextureBenchmark::stb);
+	}
+
+	private static void time(String name, Loader l) throws IOException {
+		for(int i = 0; i < WARMUP; ++i) {
+			for(String p : TEXTURES) {
+				l.load(p);
+			}
+		}
+		long start = System.nanoTime();
+		for(int i = 0; i < RUNS; ++i) {
+			for(String p : TEXTURES) {
+				l.load(p);
+			}
+		}
+		double ms = (System.nanoTime() - start) / 1000000d / RUNS;
+		System.out.printf("%-24s %8.3f ms for all %d textures%n", name, ms, TEXTURES.length);
+	}
+
+	/**
+	 * what Texture.init used to do
+	 */
+	private static void legacy(String path) throws IOException {
+		BufferedImage b = ImageIO.read(new File(path));
+		int width = b.getWidth();
+		int height = b.getHeight();
+		int[] pixels = b.getRGB(0, 0, width, height, null, 0, width);
+		ByteBuffer buffer = BufferUtils.createByteBuffer(width*height*4);
+		for(int i = 0; i < height; ++i) {
+			for(int j = 0; j < width; ++j) {
+				int pixel = pixels[i*width+j];
+				buffer.put((byte)((pixel >> 16) & 0xff));
+				buffer.put((byte)((pixel >>  8) & 0xff));
+				buffer.put((byte)((pixel      ) & 0xff));
+				buffer.put((byte)((pixel >> 24) & 0xff));
+			}
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * prints whether stb and ImageIO decode an image to the same pixels
+	 */
+	private static void compare(String path) throws IOException {
+		TextureLoader.Image s = TextureLoader.loadStb(path);
+		if(s == null) {
+			System.out.println(path + " | stb can't decode it");
+			return;
+		}
+		TextureLoader.Image i = TextureLoader.loadImageIO(path);
+		int differ = 0;
+		if(s.width != i.width || s.height != i.height) {
+			differ = -1;
+		} else {
+			for(int b = 0; b < s.width * s.height * 4; ++b) {
+				if(s.pixels.get(b) != i.pixels.get(b)) {
+					++differ;
+				}
+			}
+		}
+		System.out.println(path + " | " + (differ == 0 ? "same" : differ == -1 ? "different sizes" : differ + " bytes different"));
+		s.free();
+		i.free();
+	}
+
+	private static void stb(String path) throws IOException {
+		TextureLoader.Image i = TextureLoader.loadStb(path);
+		//null when stb can't decode it, that's already been printed
+		if(i != null) {
+			i.free();
+		}
+	}
+
+}
@@ -5,13 +5,16 @@ import static game.scenes.game.GameAssets.player;
 
 import cnge.core.AssetBundle;
 import cnge.core.BlockSet;
+import cnge.core.SpatialGrid;
 import cnge.core.LoadScreen;
 import cnge.core.Scene;
 import cnge.core.Timer;
 import cnge.core.AssetBundle.LoadAction;
 import cnge.core.AssetBundle.SceneLoadAction;
+import cnge.graphics.InstancedShape;
 import cnge.graphics.Shape;
 import cnge.graphics.TexShape;
+import cnge.graphics.texture.TextureAtlas;
 import cnge.graphics.texture.TexturePreset;
 import cnge.graphics.texture.TileTexture;
 import game.SparkBase;
@@ -24,6 +27,8 @@ import game.scenes.game.entities.Player;
 import game.scenes.game.entities.Sky;
 import game.scenes.game.levels.Level1;
 import game.shaders.ColorShader;
+import game.shaders.InstancedTileShader;
+import game.shaders.TextBatchShader;
 import game.shaders.TextShader;
 import game.shaders.TextureShader;
 import game.shaders.TileShader;
@@ -59,6 +64,11 @@ public class GameAssets extends AssetBundle<GameScene> {
 	public static Battery[] batteries;
 	public static int numBatteries;
 	
+	/**
+	 * the batteries by where they are, so the player only checks the ones near it
+	 */
+	public static SpatialGrid pickups = new SpatialGrid(64);
+	
 	/*
 	 * map groups
 	 */
@@ -73,12 +83,16 @@ public class GameAssets extends AssetBundle<GameScene> {
 	 * graphics
 	 */
 	public static TexShape rect;
+	public static InstancedShape batteryInstances;
 	
 	public static TileShader tileShader;
 	public static ColorShader colShader;
 	public static TextureShader textureShader;
 	public static TextShader textShader;
+	public static TextBatchShader textBatchShader;
+	public static InstancedTileShader instancedTileShader;
 	
+	public static TextureAtlas atlas;
 	public static TileTexture tileSheet;
 	public static TileTexture playerSheet; 
 	public static TileTexture skyTex;
@@ -96,30 +110,30 @@ public class GameAssets extends AssetBundle<GameScene> {
 		super(
 			((SparkBase)base).loadScreen,
 			new LoadAction[] {
-					() -> {
+					graphics(() -> {
 						rect = Shape.RECT;		
-					},
-					() -> {
-						tileShader = new TileShader();
-						colShader = new ColorShader();
-						textureShader = new TextureShader();
-						textShader = new TextShader();
-					},
-					() -> {
-						tileSheet = new TileTexture("res/textures/blocks.png", 4, 4, new TexturePreset().clampHorz(true).clampVert(true));
-					},
-					() -> {
-						playerSheet = new TileTexture("res/textures/sparky.png", 4, 2);
-					},
-					() -> {
-						skyTex = new TileTexture("res/textures/sky.png", 4, new TexturePreset().clampHorz(false).clampVert(false));
-					},
-					() -> {
-						batteryTex = new TileTexture("res/textures/battery.png", 7, 2);
-					},
-					() -> {
-						countdownTex = new TileTexture("res/textures/countdown.png", 2, 2);
-					},
+						batteryInstances = new InstancedShape(64);
+					}),
+					graphics(() -> {
+						tileShader = registry.shader(TileShader.class, TileShader::new);
+						colShader = registry.shader(ColorShader.class, ColorShader::new);
+						textureShader = registry.shader(TextureShader.class, TextureShader::new);
+						textShader = registry.shader(TextShader.class, TextShader::new);
+						textBatchShader = registry.shader(TextBatchShader.class, TextBatchShader::new);
+						instancedTileShader = registry.shader(InstancedTileShader.class, InstancedTileShader::new);
+					}),
+					graphics(() -> {
+						//everything that doesn't need to repeat shares one texture
+						atlas = new TextureAtlas(512, 2, new TexturePreset().clampHorz(true).clampVert(true));
+						tileSheet = atlas.add("res/textures/blocks.png", 4, 4);
+						playerSheet = atlas.add("res/textures/sparky.png", 4, 2);
+						batteryTex = atlas.add("res/textures/battery.png", 7, 2);
+						countdownTex = atlas.add("res/textures/countdown.png", 2, 2);
+						atlas.build();
+					}),
+					graphics(() -> {
+						skyTex = registry.tileTexture("res/textures/sky.png", 4, 1, new TexturePreset().clampHorz(false).clampVert(false));
+					}),
 					() -> {
 						world1Blocks = new BlockSet<TexBlock>(
 							//default
@@ -135,9 +149,10 @@ public class GameAssets extends AssetBundle<GameScene> {
 					},
 					() -> {
 						level1 = new Level1();
-						
+					},
+					graphics(() -> {
 						sparkFont = new SparkFont();
-					}
+					})
 				},
 			c
 		);
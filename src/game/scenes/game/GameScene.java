@@ -3,10 +3,15 @@ package game.scenes.game;
 import cnge.core.AssetBundle;
 import cnge.core.AssetBundle.SceneLoadAction;
 import cnge.core.BlockSet;
+import cnge.core.Entity;
+import cnge.core.Hitbox;
+import cnge.core.Profiler;
 import cnge.core.Scene;
 import cnge.core.Timer;
+import cnge.graphics.Shader;
 import cnge.graphics.Shape;
 import cnge.graphics.Transform;
+import cnge.graphics.texture.Texture;
 import cnge.graphics.texture.TexturePreset;
 import cnge.graphics.texture.TileTexture;
 import game.scenes.game.entities.Battery;
@@ -32,10 +37,17 @@ import game.TexBlock;
 
 public class GameScene extends Scene<GameScene> {
 	
+	private static final char[] GREETING = {'y','o',' ','w','h','a','t',' ','u','p'};
+	
+	private static final int PLAYER_SCOPE = Profiler.scope("player");
+	private static final int MAP_SCOPE = Profiler.scope("map");
+	
 	public boolean pressJump;
 	public boolean pressLeft;
 	public boolean pressRight;
 	
+	private Entity[] nearby = new Entity[16];
+	
 	public float currentMapHeight;
 	public float deathBarrier;
 	
@@ -84,6 +96,9 @@ public class GameScene extends Scene<GameScene> {
 		currentLevel = m;
 		
 		m.load();
+		if(currentMap != null) {
+			currentMap.destroy();
+		}
 		currentMap = m.createMap(0, 0, 0);
 		currentMapHeight = currentMap.getHeight();
 		deathBarrier = (currentMapHeight + 1) * 32;
@@ -94,8 +109,10 @@ public class GameScene extends Scene<GameScene> {
 		
 		numBatteries = m.batteryPlacements.length;
 		batteries = new Battery[numBatteries];
+		pickups.clear();
 		for(int i = 0; i < numBatteries; ++i) {
 			createEntity(batteries[i] = new Battery(i), m.batteryPlacements[i][0], m.batteryPlacements[i][1]);
+			batteries[i].pickupHandle = pickups.add(batteries[i]);
 		}
 		
 		createEntity(player = new Player(), currentLevel.startX, currentLevel.startY);
@@ -105,14 +122,16 @@ public class GameScene extends Scene<GameScene> {
 	
 	@Override
 	public void update() {
-		pressJump = window.keyPressed(GLFW_KEY_W);
-		pressRight = window.keyPressed(GLFW_KEY_D);
-		pressLeft = window.keyPressed(GLFW_KEY_A);
+		pressJump = input.keyPressed(GLFW_KEY_W);
+		pressRight = input.keyPressed(GLFW_KEY_D);
+		pressLeft = input.keyPressed(GLFW_KEY_A);
 		
 		startTimer.update();
 		deathTimer.update();
 		
+		Profiler.begin(PLAYER_SCOPE);
 		eUpdate_S(player);
+		Profiler.end(PLAYER_SCOPE);
 		
 		cameraDownLimit(currentMapHeight * 32);
 		cameraLeftLimit(0);
@@ -125,35 +144,81 @@ public class GameScene extends Scene<GameScene> {
 		for(int i = 0; i < numBatteries; ++i) {
 			eUpdate_OS(batteries[i]);
 		}
+		collectBatteries();
 		
 		currentMap.onScreenUpdate();
 		currentMap.update();
 		//eUpdate_S(currentMap);
 		
+		//no player while waiting to restart after dying
+		if(player != null) {
+			Transform t = player.getTransform();
+			if(t.x > currentLevel.finishX && t.y > currentLevel.finishY) {
+				Scene.changeScene(new NoiseScene());
+			}
+		}
+	}
+	
+	/**
+	 * only the batteries in the grid cells around the player get the exact check
+	 */
+	private void collectBatteries() {
+		if(player == null) {
+			return;
+		}
 		Transform t = player.getTransform();
-		if(t.x > currentLevel.finishX && t.y > currentLevel.finishY) {
-			Scene.changeScene(new NoiseScene());
+		Hitbox c = player.collectBox;
+		int n = pickups.queryBox(t.x + c.x, t.y + c.y, c.width, c.height, nearby);
+		for(int i = 0; i < n; ++i) {
+			Battery b = (Battery)nearby[i];
+			if(b.touches(player)) {
+				b.collect();
+			}
 		}
 	}
 	
 	public void render() {
 		eRender(background);
 		
+		Profiler.begin(MAP_SCOPE);
 		currentMap.render(LAYER_MID);
+		Profiler.end(MAP_SCOPE);
 		
-		for(int i = 0; i < numBatteries; ++i) {
-			eRender_OS(batteries[i]);
-		}
+		renderBatteries();
 		
 		eRender_S(player);
 		
 		eRender_S(blackening);
 		eRender_S(countdown);
 		
-		sparkFont.render(new char[] {'y','o',' ','w','h','a','t',' ','u','p'}, 0, 0, 1, false);
+		sparkFont.render(GREETING, 0, 0, 1, false);
 		 
 	}
 	
+	/**
+	 * all the batteries on screen use the same texture, so they go out in one draw
+	 */
+	public void renderBatteries() {
+		batteryInstances.clear();
+		for(int i = 0; i < numBatteries; ++i) {
+			Battery b = batteries[i];
+			if(b != null && b.getOnScreen()) {
+				b.instance(batteryInstances);
+			}
+		}
+		
+		batteryTex.bind();
+		
+		//the camera block has everything else the shader needs
+		instancedTileShader.enable();
+		
+		batteryInstances.render();
+		
+		Shader.disable();
+		
+		Texture.unbind();
+	}
+	
 	@Override
 	public void resizeUpdate() {
 		
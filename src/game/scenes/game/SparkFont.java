@@ -3,8 +3,6 @@ package game.scenes.game;
 import static game.scenes.game.GameAssets.*;
 
 import cnge.core.Font;
-import cnge.graphics.Shader;
-import cnge.graphics.texture.Texture;
 
 public class SparkFont extends Font{
 
@@ -13,17 +11,8 @@ public class SparkFont extends Font{
 	}
 
 	protected void charRender(int cx, int cy, float left, float right, float up, float down) {
-		texture.bind();
-		
-		textShader.enable();
-		textShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(left, right, up, down)));		
-		textShader.setUniforms(texture.getX(), texture.getY(), texture.getZ(cx), texture.getW(cy), 1, 1, 1, 1);
-		
-		rect.render();
-		
-		Shader.disable();
-		
-		Texture.unbind();
+		batch.setShader(textBatchShader);
+		batch.draw(texture, left, right, up, down, texture.getX(), texture.getY(), texture.getZ(cx), texture.getW(cy), 1, 1, 1, 1);
 	}
 
 }
@@ -2,10 +2,13 @@ package game.scenes.game;
 
 import static game.scenes.game.GameAssets.*;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import cnge.core.BlockSet;
 import cnge.core.Level;
+import cnge.core.LevelFile;
+import cnge.core.TileGrid;
 import game.SparkBlock;
 import game.TexBlock;
 
@@ -13,11 +16,6 @@ abstract public class SparkLevel extends Level<SparkMap, TexBlock> {
 	
 	public static final int VALUE_TOP = 1;
 	
-	/*
-	 * contains wall data
-	 */
-	public int[][] values;
-			
 	public int[][] batteryPlacements;
 	
 	public int startX;
@@ -62,34 +60,37 @@ abstract public class SparkLevel extends Level<SparkMap, TexBlock> {
 		return (wallValue & 16) == 16;
 	}
 	
+	/**
+	 * works out which sides of every solid block are walls, those go in the tiles' flags,
+	 * and where the start, finish and batteries are
+	 */
 	public void onLevelLoad() {
-		int w = tiles[0].length;
-		int h = tiles[0][0].length;
-		
-		values = new int[w][h];
+		TileGrid t = tiles[0];
+		int w = t.getWidth();
+		int h = t.getHeight();
 		
 		ArrayList<int[]> batteries = new ArrayList<int[]>();
 		
-		for(int i = 0; i < w; ++i) {
-			for(int j = 0; j < h; ++j) {
-				int block = tiles[0][i][j];
-				SparkBlock bl = (blockSet.get(tiles[0][i][j]));
+		for(int j = 0; j < h; ++j) {
+			for(int i = 0; i < w; ++i) {
+				int block = t.get(i, j);
+				SparkBlock bl = blockSet.get(block);
+				int wallValue = 0;
 				if(bl.solid) {
-					int wallValue = 0;
-					if(j != 0 && !(blockSet.get(tiles[0][i][j - 1])).solid) {
+					if(j != 0 && !(blockSet.get(t.get(i, j - 1))).solid) {
 						wallValue = makeValueUp(wallValue);
 					}
-					if(i != w - 1 && !(blockSet.get(tiles[0][i + 1][j])).solid) {
+					if(i != w - 1 && !(blockSet.get(t.get(i + 1, j))).solid) {
 						wallValue = makeValueRight(wallValue);
 					}
-					if(j != h - 1 && !(blockSet.get(tiles[0][i][j + 1])).solid) {
+					if(j != h - 1 && !(blockSet.get(t.get(i, j + 1))).solid) {
 						wallValue = makeValueDown(wallValue);
 					}
-					if(i != 0 && !(blockSet.get(tiles[0][i - 1][j])).solid) {
+					if(i != 0 && !(blockSet.get(t.get(i - 1, j))).solid) {
 						wallValue = makeValueLeft(wallValue);
 					}
-					values[i][j] = wallValue;
 				}
+				t.setFlags(i, j, wallValue);
 				if(block == START_BLOCK) {
 					startX = i * 32;
 					startY = (j - 1) * 32; 
@@ -106,8 +107,35 @@ abstract public class SparkLevel extends Level<SparkMap, TexBlock> {
 		batteryPlacements = batteries.toArray(batteryPlacements);
 	}
 	
+	/**
+	 * where everything goes is saved with the compiled level, the wall values are already in the tiles
+	 */
+	protected void onLevelBake(LevelFile.Writer w) {
+		w.chunk("SPOT").putVarint(startX).putVarint(startY).putVarint(finishX).putVarint(finishY).putVarint(batteryPlacements.length);
+		for(int[] b : batteryPlacements) {
+			w.putVarint(b[0]).putVarint(b[1]);
+		}
+	}
+	
+	protected boolean onLevelRead(LevelFile f) {
+		ByteBuffer spot = f.chunk("SPOT");
+		if(spot == null) {
+			return false;
+		}
+		startX = LevelFile.getVarint(spot);
+		startY = LevelFile.getVarint(spot);
+		finishX = LevelFile.getVarint(spot);
+		finishY = LevelFile.getVarint(spot);
+		batteryPlacements = new int[LevelFile.getVarint(spot)][2];
+		for(int[] b : batteryPlacements) {
+			b[0] = LevelFile.getVarint(spot);
+			b[1] = LevelFile.getVarint(spot);
+		}
+		return true;
+	}
+	
 	public SparkMap mapCreate(int i, Object... params) {
-		return new SparkMap(values);
+		return new SparkMap();
 	}
 
 }
\ No newline at end of file
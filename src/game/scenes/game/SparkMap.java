@@ -2,7 +2,9 @@ package game.scenes.game;
 
 import static game.scenes.game.GameAssets.*;
 
+import cnge.core.CellGrid;
 import cnge.core.Map;
+import cnge.core.TileGrid;
 import cnge.graphics.Shader;
 import cnge.graphics.Transform;
 import cnge.graphics.texture.Texture;
@@ -11,55 +13,60 @@ import game.TexBlock;
 
 public class SparkMap extends Map<TexBlock> {
 	
-	public int[][] values;
-	
-	public SparkMap(int[][] v) {
+	public SparkMap() {
 		super(mAccess, 32);
-		values = v;
+		//the whole map is one draw, the blocks are looked up on the gpu
+		setRenderMode(RENDER_GRID);
+		setGrid(tileSheet, GRID_CLAMP, GRID_CLAMP);
 	}
 
 	public static Access mAccess = new Access() {
-		public int access(int[][] a, int x, int y) {
+		public int access(CellGrid a, int x, int y) {
 			return edgeAccess(a, x, y);
 		}
 	};
 	
 	public void blockRender(int l, int x, int y, float left, float right, float up, float down) {
-		int bId = mapAccess(x, y);
-		if(bId != Map.OUTSIDE_MAP) {
-			TexBlock tb = blockSet.get(bId);
+		int cell = mapCell(x, y);
+		if(cell != Map.OUTSIDE_MAP) {
+			TexBlock tb = blockSet.get(TileGrid.block(cell));
 			if(tb != null && tb.layer == l) {
 				TileTexture tex = tb.texture;
-				
-				tex.bind();
-				
-				tileShader.enable();
-				
-				tileShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(left, right, up, down)));
-				
-				int value = access(values, x, y);
+
+				int value = TileGrid.flags(cell);
 				if(tb.id == PLAIN_BLOCK && SparkLevel.isUpWall(value)) {
-					tileShader.setUniforms(tex.getX(), tex.getY(), tex.getZ(0), tex.getW(1), 1, 1, 1, 1);
+					batch.draw(tex, left, right, up, down, tex.getX(), tex.getY(), tex.getZ(0), tex.getW(1), 1, 1, 1, 1);
 				} else {
-					tileShader.setUniforms(tex.getX(), tex.getY(), tex.getZ(tb.texX), tex.getW(tb.texY), 1, 1, 1, 1);
+					batch.draw(tex, left, right, up, down, tex.getX(), tex.getY(), tex.getZ(tb.texX), tex.getW(tb.texY), 1, 1, 1, 1);
 				}
-				
-				rect.render();
-				
-				Shader.disable();
-				
-				Texture.unbind();
 			}
 		}
 	}
 	
+	public int gridCell(int l, int x, int y) {
+		int cell = getTiles().getCell(x, y);
+		TexBlock tb = blockSet.get(TileGrid.block(cell));
+		if(tb.texture == null || tb.layer != l) {
+			return 0;
+		}
+		if(tb.id == PLAIN_BLOCK && SparkLevel.isUpWall(TileGrid.flags(cell))) {
+			return gridFrame(0, 1);
+		}
+		return gridFrame(tb.texX, tb.texY);
+	}
+	
 	public void mapRender(Transform t, Texture tx) {
+		mapRender(t, tx, 0, 0);
+	}
+	
+	public void mapRender(Transform t, Texture tx, float ox, float oy) {
 		tx.bind();
 		
 		tileShader.enable();
 		
-		tileShader.setMvp(camera.getModelViewProjectionMatrix(camera.getModelMatrix(t)));
-		tileShader.setUniforms(1, -1, 0, 0, 1, 1, 1, 1);
+		tileShader.setModel(camera.getModelMatrix(t, mvp));
+		//the buffer is upside down, so the vertical offset goes the other way
+		tileShader.setUniforms(1, -1, ox, -oy, 1, 1, 1, 1);
 		
 		rect.render();
 		
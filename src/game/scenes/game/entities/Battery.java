@@ -5,6 +5,7 @@ import static game.scenes.game.GameAssets.*;
 import cnge.core.Entity;
 import cnge.core.Hitbox;
 import cnge.core.animation.Anim2D;
+import cnge.graphics.InstancedShape;
 import cnge.graphics.Shader;
 import cnge.graphics.texture.Texture;
 
@@ -13,6 +14,7 @@ public class Battery extends Entity {
 	public Anim2D anim;
 	public Hitbox box;
 	public int batteryIndex;
+	public int pickupHandle;
 	
 	public Battery(int i) {
 		super();
@@ -53,11 +55,21 @@ public class Battery extends Entity {
 	
 	public void update() {
 		anim.update();
-		if(player != null) {
-			if(box.intersects(player.getTransform().x - transform.x, player.getTransform().y - transform.y, player.collectBox)) {
-				batteries[batteryIndex] = null;
-			}
-		}
+	}
+	
+	/**
+	 * @return if the player is touching this battery
+	 */
+	public boolean touches(Player p) {
+		return box.intersects(p.getTransform().x - transform.x, p.getTransform().y - transform.y, p.collectBox);
+	}
+	
+	/**
+	 * takes the battery out of the level
+	 */
+	public void collect() {
+		batteries[batteryIndex] = null;
+		pickups.remove(pickupHandle);
 	}
 	
 	public void render() {
@@ -65,7 +77,7 @@ public class Battery extends Entity {
 		
 		tileShader.enable();
 		tileShader.setUniforms(batteryTex.getX(), batteryTex.getY(), batteryTex.getZ(anim.getX()), batteryTex.getW(anim.getY()), 1, 1, 1, 1);
-		tileShader.setMvp(camera.getModelViewProjectionMatrix(camera.getModelMatrix(transform)));
+		tileShader.setModel(camera.getModelMatrix(transform, mvp));
 		
 		rect.render();
 		
@@ -74,4 +86,14 @@ public class Battery extends Entity {
 		Texture.unbind();
 	}
 	
+	/**
+	 * adds this battery to an instanced shape instead of drawing it by itself,
+	 * so all the batteries can be drawn at once
+	 * 
+	 * @param s - the shape holding the battery instances
+	 */
+	public void instance(InstancedShape s) {
+		s.add(transform, batteryTex.getX(), batteryTex.getY(), batteryTex.getZ(anim.getX()), batteryTex.getW(anim.getY()), 1, 1, 1, 1);
+	}
+	
 }
\ No newline at end of file
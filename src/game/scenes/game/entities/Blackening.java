@@ -6,7 +6,6 @@ import cnge.core.Entity;
 import cnge.core.morph.CustomMorph;
 import cnge.core.morph.Morph;
 import cnge.graphics.Shader;
-import cnge.graphics.Transform;
 
 public class Blackening extends Entity {
 	
@@ -27,7 +26,7 @@ public class Blackening extends Entity {
 	public void render() {
 		colShader.enable();
 		colShader.setUniforms(0, 0, 0, alpha);
-		colShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(new Transform(camera.getTransform().width, camera.getTransform().height))));
+		colShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrixDims(0, 0, camera.getTransform().width, camera.getTransform().height, mvp), mvp));
 		
 		rect.render();
 		
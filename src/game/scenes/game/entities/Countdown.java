@@ -70,8 +70,8 @@ public class Countdown extends Entity {
 		countdownTex.bind();
 		
 		tileShader.enable();
-		tileShader.setUniforms(countdownTex.getX(), countdownTex.getX(), countdownTex.getZ(anim.getX()), countdownTex.getW(anim.getY()), 1, 1, 1, 1);
-		tileShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(transform)));
+		tileShader.setUniforms(countdownTex.getX(), countdownTex.getY(), countdownTex.getZ(anim.getX()), countdownTex.getW(anim.getY()), 1, 1, 1, 1);
+		tileShader.setModel(camera.getGuiModelMatrix(transform, mvp));
 		
 		rect.render();
 		
@@ -6,6 +6,7 @@ import cnge.core.Base;
 import cnge.core.Entity;
 import cnge.core.Hitbox;
 import cnge.core.Map;
+import cnge.core.TileGrid;
 import cnge.core.animation.Anim2D;
 import cnge.graphics.Shader;
 import cnge.graphics.Transform;
@@ -66,6 +67,9 @@ public class Player extends Entity {
 	
 	public boolean controllable;
 	
+	//flipped copy of the transform for rendering
+	private Transform renderT = new Transform();
+	
 	public Player() {
 		super();
 		frameX = 0;
@@ -274,9 +278,10 @@ public class Player extends Entity {
 		
 		for(int i = l; i <= r; ++i) {
 			for(int j = u; j <= d; ++j) {
-				int bId = map.mapAccess(i, j);
-				if(bId != Map.OUTSIDE_MAP ) {
-					SparkBlock sb = (SparkBlock)map.getBlockSet().get(bId);
+				//the block and its wall value come out of the same cell
+				int cell = map.mapCell(i, j);
+				if(cell != Map.OUTSIDE_MAP ) {
+					SparkBlock sb = (SparkBlock)map.getBlockSet().get(TileGrid.block(cell));
 					if(sb.solid) {
 						do {
 							float upSide = map.getY(j);
@@ -285,7 +290,7 @@ public class Player extends Entity {
 							float rightSide = map.getX(i + 1);
 							
 							//the current wall value for this block, telling whether it is collidable on any given face
-							int wallValue = map.access(map.values, i, j);
+							int wallValue = TileGrid.flags(cell);
 							//if the player, not factoring in movement, is inside the vertical span of the block
 							boolean withinVertical = (baseUp < downSide && baseDown > upSide);
 							//same for horizontal
@@ -375,12 +380,12 @@ public class Player extends Entity {
 		
 		tileShader.setUniforms(playerSheet.getX(), playerSheet.getY(), playerSheet.getZ(frameX), playerSheet.getW(frameY), 1, 1, 1, 1);
 		
-		Transform renderT = new Transform(transform);
+		renderT.set(transform);
 		if(!facing) {
 			renderT.width = -renderT.width;
 			renderT.x -= renderT.width;
 		}
-		tileShader.setMvp(camera.getModelViewProjectionMatrix(camera.getModelMatrix(renderT)));
+		tileShader.setModel(camera.getModelMatrix(renderT, mvp));
 		
 		rect.render();
 		
@@ -47,7 +47,7 @@ public class Sky extends Entity {
 		
 		tileShader.setUniforms(0.25f * (ct.width / transform.width), (ct.height / transform.height), (float)(ct.x * parallax - transform.x) / ct.getWidth() + (skyAnim.getX() * 0.25f), (float)(ct.y * parallax - transform.y) / ct.getHeight(), 1, 1, 1, 1);
 		
-		tileShader.setMvp(camera.getModelViewProjectionMatrix(camera.getModelMatrix(camera.getTransform())));
+		tileShader.setModel(camera.getModelMatrix(camera.getTransform(), mvp));
 		
 		rect.render();
 		
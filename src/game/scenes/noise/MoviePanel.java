@@ -22,7 +22,7 @@ public class MoviePanel extends Entity {
 	public void render() {
 		movieShader.enable();
 		movieShader.setUniforms(seed);
-		movieShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(camera.getTransform())));
+		movieShader.setMvp(camera.getMP(camera.getTransform(), mvp));
 		
 		rect.render();
 		
@@ -2,7 +2,8 @@ package game.scenes.noise;
 
 import cnge.core.AssetBundle;
 import cnge.core.LoadScreen;
-import cnge.graphics.Sound;
+import cnge.graphics.SoundBank;
+import cnge.graphics.SoundBuffer;
 import cnge.graphics.shapes.RectShape;
 import game.shaders.MovieShader;
 import game.shaders.StenShader;
@@ -13,31 +14,32 @@ public class NoiseAssets extends AssetBundle {
 	public static MovieShader movieShader;
 	public static RectShape rect;
 	
-	public static Sound[] lagSounds;
+	public static SoundBuffer xp;
+	public static SoundBank lagBank;
+	public static int xpClip;
 	
 	public NoiseAssets(LoadScreen s) {
 		super(
 			s,
 			new LoadAction[] {
 				() -> {
-					stenShader = new StenShader();
+					stenShader = registry.shader(StenShader.class, StenShader::new);
 				},
 				() -> {
-					movieShader = new MovieShader();
+					movieShader = registry.shader(MovieShader.class, MovieShader::new);
 				},
 				() -> {
 					rect = new RectShape();
 				},
 				() -> {
-					lagSounds = new Sound[100];
-					for(int i = 0; i < 50; ++i) {
-						lagSounds[i] = new Sound("res/sounds/xp.wav");
-					}
-				},
-				() -> {
-					for(int i = 50; i < 100; ++i) {
-						lagSounds[i] = new Sound("res/sounds/xp.wav");
-					}
+					//decoded once, all the blips share 16 sources.
+					//the bank is gotten after the sound, so it's destroyed first when the bundle unloads
+					xp = registry.sound("res/sounds/xp.wav");
+					lagBank = registry.get("sound bank noise", () -> {
+						SoundBank b = new SoundBank(16, 100, 256, 1024);
+						xpClip = b.add(xp);
+						return b;
+					}, SoundBank::destroy, (b) -> 0);
 				}
 			}
 		);
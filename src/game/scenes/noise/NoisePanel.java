@@ -34,7 +34,7 @@ public class NoisePanel extends Entity {
 	public void render() {
 		stenShader.enable();
 		stenShader.setUniforms(x, y, w, h, cw, ch, r, g, b, a);
-		stenShader.setMvp(camera.getModelProjectionMatrix(camera.getModelMatrix(camera.getTransform())));
+		stenShader.setMvp(camera.getMP(camera.getTransform(), mvp));
 		
 		rect.render();
 		
@@ -1,13 +1,19 @@
 package game.scenes.noise;
 
 import cnge.core.Scene;
+import cnge.core.Timer;
+import cnge.graphics.Transform;
 import game.SparkBase;
 
+import static game.scenes.noise.NoiseAssets.*;
+
 public class NoiseScene extends Scene {
 
 	public NoisePanel noisePanel;
 	public MoviePanel moviePanel;
 	
+	private Timer blipTimer;
+	
 	public NoiseScene() {
 		super(
 			new NoiseAssets(((SparkBase)base).loadScreen)
@@ -21,11 +27,21 @@ public class NoiseScene extends Scene {
 		
 		noisePanel = new NoisePanel(0, 0, 160, 90, 10, 10, 1, 1, 1, 1);
 		moviePanel = new MoviePanel(0);
+		
+		//way more blips overlap than there are sources, the bank sorts out which ones get heard
+		blipTimer = new Timer(0.02, () -> {
+			Transform ct = camera.getTransform();
+			lagBank.play(xpClip, 0, ct.x + (float)Math.random() * ct.getWidth(), ct.y + (float)Math.random() * ct.getHeight(), 0.5f, false);
+			blipTimer.start();
+		});
+		blipTimer.start();
 	}
 	
 	@Override
 	public void update() {
 		moviePanel.update();
+		blipTimer.update();
+		lagBank.update();
 	}
 	
 	@Override
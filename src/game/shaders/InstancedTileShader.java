@@ -0,0 +1,15 @@
+package game.shaders;
+
+import cnge.graphics.Shader;
+
+/**
+ * the tile shader, but the position, frame and color come from each instance of an instanced shape.
+ * the projection view comes from the camera block
+ */
+public class InstancedTileShader extends Shader {
+	
+	public InstancedTileShader() {
+		super("res/shaders/tile/til2di.vs", "res/shaders/tile/til2d.fs");
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package game.shaders;
+
+import cnge.graphics.Shader;
+
+/**
+ * the text shader for use in the sprite batch, the color comes in through the vertices
+ */
+public class TextBatchShader extends Shader {
+	
+	public TextBatchShader() {
+		super("res/cnge/shaders/batch/batch.vs", "res/shaders/text/txt2d.fs");
+	}
+	
+}
\ No newline at end of file